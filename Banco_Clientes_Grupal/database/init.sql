@@ -5,4 +5,6 @@ CREATE TABLE IF NOT EXISTS tarjetas (
     fechaCaducidad DATE NOT NULL,
     createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_tarjetas_nombre_titular ON tarjetas (nombreTitular);
\ No newline at end of file
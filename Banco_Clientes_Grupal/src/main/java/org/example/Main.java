@@ -5,7 +5,10 @@ import org.example.clientes.cache.CacheClienteImpl;
 import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Tarjeta;
 import org.example.clientes.model.Usuario;
+import org.example.clientes.repositories.ClienteChangeLogImpl;
 import org.example.clientes.repositories.ClienteRepositoryImpl;
+import org.example.clientes.repositories.ClienteOutboxImpl;
+import org.example.clientes.repositories.ClienteWriteBehind;
 import org.example.clientes.repositories.TarjetaRemoteRepositoryImpl;
 import org.example.clientes.services.ClienteNotificacionImpl;
 import org.example.clientes.services.ClienteServiceImpl;
@@ -13,6 +16,7 @@ import org.example.clientes.storage.csv.StorageTarjetaCsvImpl;
 import org.example.clientes.storage.csv.StorageUsuarioCsvImpl;
 import org.example.clientes.storage.json.StorageJsonImpl;
 import org.example.config.ConfigProperties;
+import org.example.config.ServiceExecutors;
 import org.example.database.LocalDataBaseManager;
 import org.example.database.RemoteDataBaseManager;
 import org.example.rest.RetrofitClient;
@@ -36,18 +40,20 @@ public class Main {
         logger.info("Hello world!");
         logger.debug("userApiRest: " + UserApiRest.API_USERS_URL);
 
-        var retrofit = RetrofitClient.getClient(UserApiRest.API_USERS_URL);
+        var configProperties = new ConfigProperties();
+        var executors = new ServiceExecutors(configProperties);
+        var retrofit = RetrofitClient.getClient(UserApiRest.API_USERS_URL, executors.rest());
         var userApiRest = retrofit.create(UserApiRest.class);
         UserRemoteRepository userRepository = new UserRemoteRepository(userApiRest);
         var remoteDataBaseManager = new RemoteDataBaseManager();
         TarjetaRemoteRepositoryImpl tarjetaRepository = new TarjetaRemoteRepositoryImpl(remoteDataBaseManager);
-        var configProperties = new ConfigProperties();
         var localDataBaseManager = new LocalDataBaseManager(configProperties);
         ClienteRepositoryImpl clienteRepository = new ClienteRepositoryImpl(localDataBaseManager);
-        CacheClienteImpl cacheCliente = new CacheClienteImpl();
-        ClienteNotificacionImpl notification = new ClienteNotificacionImpl();
+        CacheClienteImpl cacheCliente = new CacheClienteImpl(configProperties);
+        ClienteNotificacionImpl notification = new ClienteNotificacionImpl(configProperties, new ClienteChangeLogImpl(localDataBaseManager));
+        var writeBehind = new ClienteWriteBehind(clienteRepository, new ClienteOutboxImpl(localDataBaseManager), configProperties);
 
-        var service = new ClienteServiceImpl(userRepository, tarjetaRepository, clienteRepository, cacheCliente, notification);
+        var service = new ClienteServiceImpl(userRepository, tarjetaRepository, clienteRepository, cacheCliente, notification, executors, writeBehind);
 
         tarjetaRepository.resetIds();
 
@@ -123,6 +129,8 @@ public class Main {
 
         exportarDatos(csvStorage, jsonStorage, usuarioCsvStorage, usuarios, tarjetas);
 
+        writeBehind.close();
+        executors.close();
         System.exit(0);
     }
 
@@ -2,52 +2,119 @@ package org.example.clientes.cache;
 
 import org.example.clientes.model.Cliente;
 import org.example.common.Cache;
+import org.example.config.ConfigProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Implementación de un caché para almacenar objetos de tipo Cliente.
- * Esta clase utiliza un LinkedHashMap para mantener el orden de acceso y limitar el tamaño del caché.
- * Cuando se supera el tamaño máximo del caché, se elimina el elemento más antiguo.
- * Proporciona métodos para obtener, añadir, eliminar y limpiar elementos del caché.
+ * Implementación de un caché concurrente para almacenar objetos de tipo Cliente.
+ * El caché se divide en segmentos (LRU por segmentos), cada uno con su propio LinkedHashMap
+ * ordenado por acceso y su propio cerrojo, de forma que los hilos que acceden a claves de
+ * segmentos distintos no compiten entre sí.
+ * Cada entrada tiene un tiempo de vida (TTL) y, cuando un segmento supera su capacidad,
+ * se elimina su elemento menos usado recientemente.
+ * Expone contadores de aciertos, fallos y expulsiones para poder dimensionarlo.
  *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
  * @version 1.0-SNAPSHOT
  */
 public class CacheClienteImpl implements Cache<Long, Cliente> {
     private static final Logger logger = LoggerFactory.getLogger(CacheClienteImpl.class);
+    private static final int DEFAULT_SIZE = 5;
+    private static final long DEFAULT_TTL = 0;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
     private final int cacheSize;
-    private final Map<Long, Cliente> cache;
+    private final long ttlNanos;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     /**
-     * Constructor que inicializa el caché con un tamaño predeterminado.
-     * El tamaño predeterminado del caché es 5.
+     * Constructor que inicializa el caché con un tamaño predeterminado de 5 elementos y sin caducidad.
      */
     public CacheClienteImpl() {
-        this.cacheSize = 5;
-        this.cache = new LinkedHashMap<>(cacheSize, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<Long, Cliente> eldest) {
-                return size() > CacheClienteImpl.this.cacheSize;
-            }
-        };
+        this(DEFAULT_SIZE, DEFAULT_TTL);
+    }
+
+    /**
+     * Constructor que inicializa el caché a partir de las propiedades 'cache.size' y 'cache.ttl'
+     * (en milisegundos, 0 para no caducar) del fichero application.properties.
+     *
+     * @param config Configuración de propiedades de la aplicación.
+     */
+    public CacheClienteImpl(ConfigProperties config) {
+        this(Integer.parseInt(config.getProperty("cache.size", String.valueOf(DEFAULT_SIZE))),
+                Long.parseLong(config.getProperty("cache.ttl", String.valueOf(DEFAULT_TTL))));
+    }
+
+    /**
+     * Constructor que inicializa el caché con el tamaño máximo y el tiempo de vida indicados.
+     *
+     * @param cacheSize Número máximo de clientes que puede almacenar el caché.
+     * @param ttlMillis Tiempo de vida de cada entrada en milisegundos, 0 para no caducar.
+     */
+    public CacheClienteImpl(int cacheSize, long ttlMillis) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("El tamaño del caché debe ser mayor que 0");
+        }
+        this.cacheSize = cacheSize;
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : 0;
+
+        int segmentCount = segmentCountFor(cacheSize);
+        this.segments = new Segment[segmentCount];
+        int baseCapacity = cacheSize / segmentCount;
+        int remainder = cacheSize % segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(baseCapacity + (i < remainder ? 1 : 0));
+        }
+        logger.debug("Caché de clientes creado con tamaño {}, ttl {} ms y {} segmentos", cacheSize, ttlMillis, segmentCount);
+    }
+
+    /**
+     * Calcula el número de segmentos: potencia de dos proporcional al número de núcleos,
+     * sin que cada segmento quede por debajo de un tamaño mínimo para que la expulsión
+     * siga aproximándose a un LRU global.
+     */
+    private static int segmentCountFor(int cacheSize) {
+        int max = Math.max(1, cacheSize / MIN_SEGMENT_SIZE);
+        int target = Math.min(max, Runtime.getRuntime().availableProcessors() * 2);
+        return Integer.highestOneBit(Math.max(1, target));
+    }
+
+    private Segment segmentFor(Long key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
     }
 
     /**
      * Obtiene un Cliente del caché utilizando su clave.
      *
      * @param key La clave del Cliente a obtener.
-     * @return El Cliente asociado a la clave, o null si no existe en el caché.
+     * @return El Cliente asociado a la clave, o null si no existe en el caché o ha caducado.
      */
     @Override
     public Cliente get(Long key) {
-        if (cache.containsKey(key)) {
-            return cache.get(key);
+        Cliente value = segmentFor(key).get(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
         }
-        return null;
+        return value;
     }
 
     /**
@@ -59,7 +126,43 @@ public class CacheClienteImpl implements Cache<Long, Cliente> {
     @Override
     public void put(Long key, Cliente value) {
         logger.debug("Añadiendo a cache el valor de la clave: {}", key);
-        cache.put(key, value);
+        segmentFor(key).put(key, value);
+    }
+
+    /**
+     * Obtiene varios Clientes del caché agrupando las claves por segmento,
+     * de modo que cada cerrojo se adquiere una sola vez.
+     *
+     * @param keys Las claves de los Clientes a obtener.
+     * @return Un mapa con los Clientes encontrados; las claves ausentes o caducadas no aparecen.
+     */
+    @Override
+    public Map<Long, Cliente> getAll(Collection<Long> keys) {
+        Map<Long, Cliente> found = new HashMap<>();
+        groupBySegment(keys).forEach((segment, segmentKeys) -> segment.getAll(segmentKeys, found));
+        hits.add(found.size());
+        misses.add(keys.stream().distinct().count() - found.size());
+        return found;
+    }
+
+    /**
+     * Añade varios Clientes al caché agrupando las claves por segmento,
+     * de modo que cada cerrojo se adquiere una sola vez.
+     *
+     * @param values Los Clientes a almacenar, indexados por su clave.
+     */
+    @Override
+    public void putAll(Map<Long, Cliente> values) {
+        logger.debug("Añadiendo a cache {} valores", values.size());
+        groupBySegment(values.keySet()).forEach((segment, segmentKeys) -> segment.putAll(segmentKeys, values));
+    }
+
+    private Map<Segment, List<Long>> groupBySegment(Collection<Long> keys) {
+        Map<Segment, List<Long>> grouped = new IdentityHashMap<>();
+        for (Long key : keys) {
+            grouped.computeIfAbsent(segmentFor(key), segment -> new ArrayList<>()).add(key);
+        }
+        return grouped;
     }
 
     /**
@@ -70,7 +173,7 @@ public class CacheClienteImpl implements Cache<Long, Cliente> {
     @Override
     public void remove(Long key) {
         logger.debug("Eliminando de cache el valor de la clave: {}", key);
-        cache.remove(key);
+        segmentFor(key).remove(key);
     }
 
     /**
@@ -79,7 +182,9 @@ public class CacheClienteImpl implements Cache<Long, Cliente> {
     @Override
     public void clear() {
         logger.debug("Limpiando la cache");
-        cache.clear();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
     }
 
     /**
@@ -89,17 +194,205 @@ public class CacheClienteImpl implements Cache<Long, Cliente> {
      */
     @Override
     public int size() {
-        return cache.size();
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
     }
 
     /**
-     * Verifica si una clave existe en el caché.
+     * Verifica si una clave existe en el caché y no ha caducado.
+     * No modifica los contadores de aciertos y fallos.
      *
      * @param key La clave a buscar en el caché.
      * @return true si la clave existe, false en caso contrario.
      */
     @Override
     public boolean containsKey(Long key) {
-        return cache.containsKey(key);
+        return segmentFor(key).containsKey(key);
+    }
+
+    /**
+     * Devuelve el tamaño máximo configurado del caché.
+     *
+     * @return El número máximo de clientes que puede almacenar el caché.
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Devuelve el número de lecturas que encontraron el cliente en el caché.
+     *
+     * @return El número de aciertos.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Devuelve el número de lecturas que no encontraron el cliente en el caché.
+     *
+     * @return El número de fallos.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Devuelve el número de entradas expulsadas por falta de espacio o por caducidad.
+     *
+     * @return El número de expulsiones.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Devuelve la proporción de lecturas que fueron aciertos.
+     *
+     * @return La tasa de aciertos entre 0 y 1, o 0 si aún no hubo lecturas.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlNanos > 0 && now - entry.writtenAt >= ttlNanos;
+    }
+
+    /**
+     * Entrada del caché con el instante de escritura para calcular su caducidad.
+     */
+    private static final class Entry {
+        private final Cliente value;
+        private final long writtenAt;
+
+        private Entry(Cliente value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * Segmento del caché: un LinkedHashMap ordenado por acceso protegido por su propio cerrojo.
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, Entry> map;
+
+        private Segment(int capacity) {
+            this.map = new LinkedHashMap<>(Math.max(16, (int) (capacity / 0.75f) + 1), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private Cliente get(Long key) {
+            lock.lock();
+            try {
+                Entry entry = map.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (isExpired(entry, System.nanoTime())) {
+                    map.remove(key);
+                    evictions.increment();
+                    return null;
+                }
+                return entry.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(Long key, Cliente value) {
+            Entry entry = new Entry(value, System.nanoTime());
+            lock.lock();
+            try {
+                map.put(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void getAll(List<Long> keys, Map<Long, Cliente> found) {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                for (Long key : keys) {
+                    Entry entry = map.get(key);
+                    if (entry == null) {
+                        continue;
+                    }
+                    if (isExpired(entry, now)) {
+                        map.remove(key);
+                        evictions.increment();
+                    } else {
+                        found.put(key, entry.value);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void putAll(List<Long> keys, Map<Long, Cliente> values) {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                for (Long key : keys) {
+                    map.put(key, new Entry(values.get(key), now));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Long key) {
+            lock.lock();
+            try {
+                map.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                map.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean containsKey(Long key) {
+            lock.lock();
+            try {
+                Entry entry = map.get(key);
+                return entry != null && !isExpired(entry, System.nanoTime());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 }
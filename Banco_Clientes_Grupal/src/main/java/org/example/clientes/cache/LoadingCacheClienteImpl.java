@@ -0,0 +1,252 @@
+package org.example.clientes.cache;
+
+import org.example.clientes.model.Cliente;
+import org.example.common.Cache;
+import org.example.common.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Caché de clientes con carga bajo demanda (read-through).
+ * Envuelve un {@link Cache} de clientes y, ante un fallo, invoca la función de carga
+ * garantizando que solo haya una carga en curso por identificador: las peticiones
+ * concurrentes sobre el mismo cliente esperan a esa carga y reciben el mismo resultado.
+ * La función de carga es asíncrona, de modo que ningún hilo queda bloqueado mientras
+ * la carga recorre los distintos orígenes.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public class LoadingCacheClienteImpl implements LoadingCache<Long, Cliente> {
+    private static final Logger logger = LoggerFactory.getLogger(LoadingCacheClienteImpl.class);
+    private final Cache<Long, Cliente> cache;
+    private final Function<Long, CompletableFuture<Cliente>> loader;
+    private final ConcurrentMap<Long, Carga> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor que recibe la caché donde se almacenan los clientes y la función de carga.
+     *
+     * @param cache La caché subyacente de clientes.
+     * @param loader Función que inicia la carga de un cliente por su id; el futuro se completa con null si no existe.
+     */
+    public LoadingCacheClienteImpl(Cache<Long, Cliente> cache, Function<Long, CompletableFuture<Cliente>> loader) {
+        this.cache = cache;
+        this.loader = loader;
+    }
+
+    /**
+     * Obtiene un Cliente del caché o lo carga si no está presente, esperando a que termine la carga.
+     * Solo una de las llamadas concurrentes para el mismo id ejecuta la carga.
+     *
+     * @param key La clave del Cliente a obtener.
+     * @return El Cliente asociado a la clave, o null si no existe.
+     */
+    @Override
+    public Cliente getOrLoad(Long key) {
+        return await(getOrLoadAsync(key));
+    }
+
+    /**
+     * Obtiene un Cliente del caché o inicia su carga si no está presente.
+     * Solo una de las llamadas concurrentes para el mismo id ejecuta la carga, pero cada llamada recibe su
+     * propio futuro: completarlo con un error, por ejemplo con {@link CompletableFuture#orTimeout}, solo
+     * afecta a esa llamada. La carga del origen se cancela cuando abandonan todas las llamadas que la esperan.
+     *
+     * @param key La clave del Cliente a obtener.
+     * @return Un futuro con el Cliente asociado a la clave, o null si no existe.
+     */
+    @Override
+    public CompletableFuture<Cliente> getOrLoadAsync(Long key) {
+        while (true) {
+            Cliente cliente = cache.get(key);
+            if (cliente != null) {
+                return CompletableFuture.completedFuture(cliente);
+            }
+
+            Carga carga = new Carga();
+            Carga existing = inFlight.putIfAbsent(key, carga);
+            if (existing != null) {
+                CompletableFuture<Cliente> espera = existing.esperar();
+                if (espera != null) {
+                    logger.debug("Esperando a la carga en curso del cliente con id: {}", key);
+                    return espera;
+                }
+                // La carga se acaba de abandonar: se retira y se inicia otra
+                inFlight.remove(key, existing);
+                continue;
+            }
+            CompletableFuture<Cliente> load = carga.resultado;
+            load.whenComplete((result, error) -> inFlight.remove(key, carga));
+            CompletableFuture<Cliente> espera = carga.esperar();
+
+            // Otra carga pudo terminar entre la consulta inicial y el registro de esta
+            cliente = cache.get(key);
+            if (cliente != null) {
+                load.complete(cliente);
+                return espera;
+            }
+
+            logger.debug("Cargando cliente con id: {}", key);
+            CompletableFuture<Cliente> loaded;
+            try {
+                loaded = loader.apply(key);
+            } catch (Throwable e) {
+                // Cualquier fallo, incluidos los Error, debe completar la carga para no dejar esperando al resto
+                load.completeExceptionally(e);
+                return espera;
+            }
+            loaded.whenComplete((result, error) -> {
+                if (error != null) {
+                    load.completeExceptionally(unwrap(error));
+                    return;
+                }
+                if (result != null) {
+                    cache.put(key, result);
+                }
+                load.complete(result);
+            });
+            // Si se abandona la carga porque ya no la espera nadie, se cancela también la del origen
+            load.whenComplete((result, error) -> {
+                if (error != null) {
+                    loaded.cancel(true);
+                }
+            });
+            return espera;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private Cliente await(CompletableFuture<Cliente> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cliente get(Long key) {
+        return cache.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(Long key, Cliente value) {
+        cache.put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Long, Cliente> getAll(Collection<Long> keys) {
+        return cache.getAll(keys);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<Long, Cliente> values) {
+        cache.putAll(values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(Long key) {
+        cache.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Long key) {
+        return cache.containsKey(key);
+    }
+
+    /**
+     * Carga en curso de un cliente junto con el número de llamadas que la esperan.
+     */
+    private static final class Carga {
+        private final CompletableFuture<Cliente> resultado = new CompletableFuture<>();
+        private int esperando;
+        private boolean abandonada;
+
+        /**
+         * Registra una llamada más que espera la carga.
+         *
+         * @return el futuro propio de la llamada, o null si la carga ya se ha abandonado.
+         */
+        private synchronized CompletableFuture<Cliente> esperar() {
+            if (abandonada) {
+                return null;
+            }
+            esperando++;
+            CompletableFuture<Cliente> espera = new CompletableFuture<>();
+            resultado.whenComplete((result, error) -> {
+                if (error != null) {
+                    espera.completeExceptionally(unwrap(error));
+                } else {
+                    espera.complete(result);
+                }
+            });
+            espera.whenComplete((result, error) -> {
+                if (error != null && !resultado.isDone()) {
+                    abandonar();
+                }
+            });
+            return espera;
+        }
+
+        private void abandonar() {
+            synchronized (this) {
+                if (--esperando > 0 || resultado.isDone()) {
+                    return;
+                }
+                abandonada = true;
+            }
+            resultado.cancel(true);
+        }
+    }
+}
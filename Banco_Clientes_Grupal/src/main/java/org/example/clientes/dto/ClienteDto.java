@@ -2,6 +2,7 @@ package org.example.clientes.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.util.List;
 
@@ -12,6 +13,7 @@ import java.util.List;
  */
 @Data
 @Builder
+@Jacksonized
 public class ClienteDto {
 
     private Long id;
@@ -2,6 +2,7 @@ package org.example.clientes.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 /**
  * DTO para representar a una tarjeta de crédito.
@@ -10,6 +11,7 @@ import lombok.Data;
  */
 @Data
 @Builder
+@Jacksonized
 public class TarjetaDto {
 
     private Long id;
@@ -2,6 +2,7 @@ package org.example.clientes.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 /**
  * DTO para representar un usuario.
@@ -10,6 +11,7 @@ import lombok.Data;
  */
 @Data
 @Builder
+@Jacksonized
 public class UsuarioDto {
     private Long id;
     private String nombre;
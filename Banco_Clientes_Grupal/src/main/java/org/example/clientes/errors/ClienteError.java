@@ -65,4 +65,13 @@ public class ClienteError {
             super("No se pudo borrar el cliente: ", 400);
         }
     }
+
+    /**
+     * Clase interna para representar el error cuando no se puede sincronizar la base de datos local.
+     */
+    public static class ClienteNotSynchronized extends ClienteError {
+        public ClienteNotSynchronized() {
+            super("No se pudo sincronizar la base de datos local: ", 500);
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package org.example.clientes.mappers;
+
+import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Tarjeta;
+import org.example.clientes.model.Usuario;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase encargada de mapear las filas de la consulta Usuario LEFT JOIN Tarjeta a objetos Cliente.
+ * Agrupa en una sola pasada todas las filas consecutivas de un mismo usuario en un único Cliente
+ * con la lista completa de sus tarjetas, por lo que la consulta debe estar ordenada por el id del usuario.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public class ClienteRowMapper {
+    private Cliente current;
+
+    /**
+     * Procesa la fila actual del ResultSet.
+     *
+     * @param resultSet El ResultSet posicionado en la fila a procesar
+     * @return El Cliente anterior si la fila pertenece a un usuario nuevo, o null si aún no está completo
+     * @throws SQLException Si ocurre un error al leer la fila
+     */
+    public Cliente accept(ResultSet resultSet) throws SQLException {
+        long usuarioId = resultSet.getLong("usuarioId");
+        Cliente completed = null;
+
+        if (current == null || current.getId() != usuarioId) {
+            completed = current;
+            current = toCliente(resultSet, usuarioId);
+        }
+
+        if (resultSet.getString("tarjetaId") != null) {
+            current.getTarjeta().add(toTarjeta(resultSet));
+        }
+        return completed;
+    }
+
+    /**
+     * Devuelve el último Cliente en curso, una vez procesadas todas las filas.
+     *
+     * @return El último Cliente, o null si no se procesó ninguna fila
+     */
+    public Cliente finish() {
+        Cliente completed = current;
+        current = null;
+        return completed;
+    }
+
+    /**
+     * Recorre todo el ResultSet y devuelve un Cliente por usuario.
+     *
+     * @param resultSet El ResultSet ordenado por el id del usuario
+     * @return La lista de clientes con todas sus tarjetas
+     * @throws SQLException Si ocurre un error al leer las filas
+     */
+    public static List<Cliente> mapAll(ResultSet resultSet) throws SQLException {
+        ClienteRowMapper mapper = new ClienteRowMapper();
+        List<Cliente> clientes = new ArrayList<>();
+        while (resultSet.next()) {
+            Cliente cliente = mapper.accept(resultSet);
+            if (cliente != null) {
+                clientes.add(cliente);
+            }
+        }
+        Cliente last = mapper.finish();
+        if (last != null) {
+            clientes.add(last);
+        }
+        return clientes;
+    }
+
+    private static Cliente toCliente(ResultSet resultSet, long usuarioId) throws SQLException {
+        LocalDateTime createdAt = resultSet.getObject("usuarioCreatedAt", LocalDateTime.class);
+        LocalDateTime updatedAt = resultSet.getObject("usuarioUpdatedAt", LocalDateTime.class);
+
+        Usuario usuario = Usuario.builder()
+                .id(usuarioId)
+                .nombre(resultSet.getString("nombre"))
+                .userName(resultSet.getString("userName"))
+                .email(resultSet.getString("email"))
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+
+        return Cliente.builder()
+                .id(usuarioId)
+                .usuario(usuario)
+                .tarjeta(new ArrayList<>())
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static Tarjeta toTarjeta(ResultSet resultSet) throws SQLException {
+        return Tarjeta.builder()
+                .id(resultSet.getLong("tarjetaId"))
+                .numeroTarjeta(resultSet.getString("numeroTarjeta"))
+                .nombreTitular(resultSet.getString("nombreTitular"))
+                .fechaCaducidad(resultSet.getObject("fechaCaducidad", LocalDate.class))
+                .createdAt(resultSet.getObject("tarjetaCreatedAt", LocalDateTime.class))
+                .updatedAt(resultSet.getObject("tarjetaUpdatedAt", LocalDateTime.class))
+                .build();
+    }
+}
@@ -12,6 +12,7 @@ package org.example.clientes.model;
 public class Notificacion<T> {
     private Tipo tipo;
     private T contenido;
+    private Long secuencia;
 
     /**
      * Constructor que inicializa una notificación con el tipo de notificación y el contenido proporcionados.
@@ -61,6 +62,24 @@ public class Notificacion<T> {
         this.contenido = contenido;
     }
 
+    /**
+     * Obtiene el número de secuencia de la notificación en el registro de cambios.
+     *
+     * @return El número de secuencia, o null si la notificación no se ha registrado.
+     */
+    public Long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Establece el número de secuencia de la notificación en el registro de cambios.
+     *
+     * @param secuencia El número de secuencia asignado al registrar la notificación.
+     */
+    public void setSecuencia(Long secuencia) {
+        this.secuencia = secuencia;
+    }
+
     /**
      * Devuelve una representación en cadena de la notificación.
      *
@@ -71,6 +90,7 @@ public class Notificacion<T> {
         return "Notificacion{" +
                 "tipo=" + tipo +
                 ", contenido=" + contenido +
+                ", secuencia=" + secuencia +
                 '}';
     }
 
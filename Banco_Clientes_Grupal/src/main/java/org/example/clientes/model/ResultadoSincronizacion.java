@@ -0,0 +1,41 @@
+package org.example.clientes.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * La clase ResultadoSincronizacion resume los cambios aplicados al sincronizar
+ * la base de datos local con la remota.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+public class ResultadoSincronizacion {
+
+    private int creados;
+    private int actualizados;
+    private int borrados;
+    private int sinCambios;
+    private Duration duracion;
+
+    /**
+     * Constructor completo para crear una instancia de la clase ResultadoSincronizacion.
+     *
+     * @param creados Número de clientes insertados
+     * @param actualizados Número de clientes actualizados
+     * @param borrados Número de clientes eliminados
+     * @param sinCambios Número de clientes que ya estaban al día
+     * @param duracion Tiempo total de la sincronización
+     */
+    public ResultadoSincronizacion(int creados, int actualizados, int borrados, int sinCambios, Duration duracion) {
+        this.creados = creados;
+        this.actualizados = actualizados;
+        this.borrados = borrados;
+        this.sinCambios = sinCambios;
+        this.duracion = duracion;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.clientes.repositories;
+
+import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Notificacion;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Interfaz del registro de cambios de clientes: un log de solo inserción en el que cada
+ * notificación recibe un número de secuencia creciente, para poder reproducirlas a partir de él.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public interface ClienteChangeLog {
+
+    /**
+     * Añade una notificación al registro y le asigna su número de secuencia.
+     *
+     * @param notificacion La notificación a registrar.
+     * @return El número de secuencia asignado, o -1 si no se pudo registrar.
+     */
+    long append(Notificacion<Cliente> notificacion);
+
+    /**
+     * Obtiene las notificaciones registradas a partir de un número de secuencia, ordenadas por secuencia.
+     *
+     * @param fromSequence Número de secuencia de la primera notificación, incluido.
+     * @param limit Número máximo de notificaciones a devolver.
+     * @return Lista de notificaciones con su secuencia, vacía si no hay más.
+     * @throws SQLException si no se puede leer el registro, para no confundir un error con el final del registro.
+     */
+    List<Notificacion<Cliente>> getFrom(long fromSequence, int limit) throws SQLException;
+
+    /**
+     * Elimina las notificaciones más antiguas conservando solo las últimas indicadas.
+     *
+     * @param retain Número de notificaciones más recientes que se conservan.
+     * @return Número de notificaciones eliminadas.
+     */
+    int compact(long retain);
+}
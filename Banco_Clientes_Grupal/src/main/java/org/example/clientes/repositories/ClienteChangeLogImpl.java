@@ -0,0 +1,129 @@
+package org.example.clientes.repositories;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Notificacion;
+import org.example.database.LocalDataBaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación del registro de cambios de clientes sobre la tabla ClienteChangeLog de la base de datos local.
+ * El número de secuencia es la clave primaria autoincremental de la tabla, por lo que es creciente y
+ * las lecturas a partir de una secuencia recorren solo el tramo pedido del índice. El cliente de cada
+ * notificación se guarda como JSON con el estado que tenía al notificarse.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public class ClienteChangeLogImpl implements ClienteChangeLog {
+    private final Logger logger = LoggerFactory.getLogger(ClienteChangeLogImpl.class);
+    private final LocalDataBaseManager dataBaseManager;
+
+    /**
+     * Constructor de la clase.
+     *
+     * @param dataBaseManager el gestor de la base de datos local.
+     */
+    public ClienteChangeLogImpl(LocalDataBaseManager dataBaseManager) {
+        this.dataBaseManager = dataBaseManager;
+    }
+
+    /**
+     * Añade una notificación al registro y le asigna su número de secuencia.
+     *
+     * @param notificacion la notificación a registrar.
+     * @return el número de secuencia asignado, o -1 si ocurre un error.
+     */
+    @Override
+    public long append(Notificacion<Cliente> notificacion) {
+        String query = "INSERT INTO ClienteChangeLog (tipo, clienteId, contenido, createdAt) VALUES (?, ?, ?, ?)";
+        Cliente cliente = notificacion.getContenido();
+
+        try (Connection connection = dataBaseManager.connectForWrite();
+             PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, notificacion.getTipo().name());
+            statement.setObject(2, cliente != null ? cliente.getId() : null);
+            statement.setString(3, cliente != null ? ClienteJson.write(cliente) : null);
+            statement.setObject(4, LocalDateTime.now());
+            statement.executeUpdate();
+
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    long secuencia = generatedKeys.getLong(1);
+                    notificacion.setSecuencia(secuencia);
+                    return secuencia;
+                }
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            logger.error("Error al registrar la notificación", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene las notificaciones registradas a partir de un número de secuencia.
+     *
+     * @param fromSequence número de secuencia de la primera notificación, incluido.
+     * @param limit número máximo de notificaciones a devolver.
+     * @return una lista de notificaciones ordenadas por secuencia.
+     * @throws SQLException si ocurre un error al leer, o {@link SQLDataException} si una notificación no se puede leer.
+     */
+    @Override
+    public List<Notificacion<Cliente>> getFrom(long fromSequence, int limit) throws SQLException {
+        List<Notificacion<Cliente>> notificaciones = new ArrayList<>();
+        String query = "SELECT secuencia, tipo, contenido FROM ClienteChangeLog WHERE secuencia >= ? ORDER BY secuencia LIMIT ?";
+
+        try (Connection connection = dataBaseManager.connect();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setLong(1, fromSequence);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long secuencia = resultSet.getLong("secuencia");
+                    String contenido = resultSet.getString("contenido");
+                    Cliente cliente;
+                    try {
+                        cliente = contenido != null ? ClienteJson.read(contenido) : null;
+                    } catch (JsonProcessingException e) {
+                        throw new SQLDataException("No se pudo leer la notificación con secuencia " + secuencia, e);
+                    }
+                    Notificacion<Cliente> notificacion = new Notificacion<>(Notificacion.Tipo.valueOf(resultSet.getString("tipo")), cliente);
+                    notificacion.setSecuencia(secuencia);
+                    notificaciones.add(notificacion);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al leer el registro de cambios desde la secuencia {}", fromSequence, e);
+            throw e;
+        }
+        return notificaciones;
+    }
+
+    /**
+     * Elimina las notificaciones más antiguas conservando solo las últimas indicadas.
+     *
+     * @param retain número de notificaciones más recientes que se conservan.
+     * @return número de notificaciones eliminadas.
+     */
+    @Override
+    public int compact(long retain) {
+        String query = "DELETE FROM ClienteChangeLog WHERE secuencia <= (SELECT MAX(secuencia) FROM ClienteChangeLog) - ?";
+
+        try (Connection connection = dataBaseManager.connectForWrite();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setLong(1, retain);
+            int borradas = statement.executeUpdate();
+            logger.debug("Registro de cambios compactado: {} notificaciones eliminadas", borradas);
+            return borradas;
+        } catch (SQLException e) {
+            logger.error("Error al compactar el registro de cambios", e);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.clientes.repositories;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Tarjeta;
+import org.example.clientes.model.Usuario;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversión de clientes a JSON y desde JSON para las tablas locales que guardan
+ * una copia del cliente, como el registro de cambios y el diario de escrituras pendientes.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+final class ClienteJson {
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ClienteJson() {
+    }
+
+    /**
+     * Convierte un cliente a JSON.
+     *
+     * @param cliente El cliente a convertir.
+     * @return El JSON del cliente.
+     * @throws JsonProcessingException si no se puede serializar.
+     */
+    static String write(Cliente cliente) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(cliente);
+    }
+
+    /**
+     * Reconstruye un cliente a partir de su JSON.
+     *
+     * @param json El JSON del cliente.
+     * @return El cliente.
+     * @throws JsonProcessingException si el JSON no es válido.
+     */
+    static Cliente read(String json) throws JsonProcessingException {
+        return toCliente(objectMapper.readTree(json));
+    }
+
+    private static Cliente toCliente(JsonNode node) {
+        List<Tarjeta> tarjetas = null;
+        if (node.hasNonNull("tarjeta")) {
+            tarjetas = new ArrayList<>();
+            for (JsonNode tarjeta : node.get("tarjeta")) {
+                tarjetas.add(new Tarjeta(longValue(tarjeta, "id"), text(tarjeta, "nombreTitular"), text(tarjeta, "numeroTarjeta"),
+                        tarjeta.hasNonNull("fechaCaducidad") ? LocalDate.parse(tarjeta.get("fechaCaducidad").asText()) : null,
+                        dateTime(tarjeta, "createdAt"), dateTime(tarjeta, "updatedAt")));
+            }
+        }
+        Usuario usuario = null;
+        if (node.hasNonNull("usuario")) {
+            JsonNode user = node.get("usuario");
+            usuario = new Usuario(longValue(user, "id"), text(user, "nombre"), text(user, "userName"), text(user, "email"),
+                    dateTime(user, "createdAt"), dateTime(user, "updatedAt"));
+        }
+        return new Cliente(longValue(node, "id"), usuario, tarjetas, dateTime(node, "createdAt"), dateTime(node, "updatedAt"));
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private static Long longValue(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asLong() : null;
+    }
+
+    private static LocalDateTime dateTime(JsonNode node, String field) {
+        return node.hasNonNull(field) ? LocalDateTime.parse(node.get(field).asText()) : null;
+    }
+}
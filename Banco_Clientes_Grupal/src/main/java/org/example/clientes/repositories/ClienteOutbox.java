@@ -0,0 +1,61 @@
+package org.example.clientes.repositories;
+
+import org.example.clientes.model.Cliente;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interfaz del diario de escrituras pendientes de la base de datos local (outbox).
+ * Cada escritura encolada en {@link ClienteWriteBehind} se registra aquí antes de aceptarse y se
+ * elimina cuando se aplica, de modo que las que no llegan a aplicarse sobreviven a un reinicio.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public interface ClienteOutbox {
+
+    /**
+     * Registra una escritura pendiente de un cliente.
+     *
+     * @param clienteId El ID del cliente.
+     * @param cliente El cliente a guardar, o null si la escritura es un borrado.
+     * @return El número de secuencia asignado, o -1 si no se pudo registrar.
+     */
+    long append(long clienteId, Cliente cliente);
+
+    /**
+     * Registra en una sola transacción el guardado pendiente de varios clientes.
+     *
+     * @param clientes Los clientes a guardar.
+     * @return Número de secuencia asignado a cada cliente por su ID, vacío si no se pudieron registrar.
+     */
+    Map<Long, Long> appendAll(Collection<Cliente> clientes);
+
+    /**
+     * Obtiene la última escritura registrada de cada cliente, ordenadas por secuencia.
+     *
+     * @return Lista de escrituras pendientes, vacía si no hay ninguna.
+     */
+    List<Entrada> getPending();
+
+    /**
+     * Elimina las escrituras ya aplicadas: para cada cliente, las de secuencia menor o igual que la indicada.
+     * Las registradas después para el mismo cliente se conservan.
+     *
+     * @param secuencias Secuencia de la última escritura aplicada de cada cliente.
+     * @return Número de escrituras eliminadas.
+     */
+    int remove(Map<Long, Long> secuencias);
+
+    /**
+     * Escritura pendiente registrada en el diario.
+     *
+     * @param secuencia El número de secuencia de la escritura.
+     * @param clienteId El ID del cliente.
+     * @param cliente El cliente a guardar, o null si es un borrado.
+     */
+    record Entrada(long secuencia, long clienteId, Cliente cliente) {
+    }
+}
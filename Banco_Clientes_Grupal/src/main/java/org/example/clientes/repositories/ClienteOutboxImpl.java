@@ -0,0 +1,189 @@
+package org.example.clientes.repositories;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.example.clientes.model.Cliente;
+import org.example.database.LocalDataBaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación del diario de escrituras pendientes sobre la tabla ClienteOutbox de la base de datos local.
+ * Registrar una escritura es una única inserción de una fila con el cliente en JSON, mucho más barata
+ * que la transacción sobre las tablas de usuarios y tarjetas que se aplaza, y varias escrituras se
+ * registran juntas con {@link #appendAll}.
+ *
+ * <p>La base de datos local usa WAL con {@code synchronous=NORMAL} (ver {@link LocalDataBaseManager}):
+ * confirmar una inserción no espera a que llegue al disco, por lo que una escritura registrada sobrevive
+ * a una caída de la aplicación, pero las últimas pueden perderse si se cae el sistema operativo o la
+ * alimentación.</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public class ClienteOutboxImpl implements ClienteOutbox {
+    private static final int APPEND_CHUNK_SIZE = 300;
+    private final Logger logger = LoggerFactory.getLogger(ClienteOutboxImpl.class);
+    private final LocalDataBaseManager dataBaseManager;
+
+    /**
+     * Constructor de la clase.
+     *
+     * @param dataBaseManager el gestor de la base de datos local.
+     */
+    public ClienteOutboxImpl(LocalDataBaseManager dataBaseManager) {
+        this.dataBaseManager = dataBaseManager;
+    }
+
+    /**
+     * Registra una escritura pendiente de un cliente.
+     *
+     * @param clienteId el ID del cliente.
+     * @param cliente el cliente a guardar, o null si la escritura es un borrado.
+     * @return el número de secuencia asignado, o -1 si ocurre un error.
+     */
+    @Override
+    public long append(long clienteId, Cliente cliente) {
+        String query = "INSERT INTO ClienteOutbox (clienteId, contenido, createdAt) VALUES (?, ?, ?) RETURNING secuencia";
+
+        try (Connection connection = dataBaseManager.connectForWrite();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setLong(1, clienteId);
+            statement.setString(2, cliente != null ? ClienteJson.write(cliente) : null);
+            statement.setObject(3, LocalDateTime.now());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getLong(1);
+                }
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            logger.error("Error al registrar la escritura pendiente del cliente {}", clienteId, e);
+        }
+        return -1;
+    }
+
+    /**
+     * Registra en una transacción el guardado pendiente de varios clientes, con una inserción
+     * de varias filas por cada tramo de clientes.
+     *
+     * @param clientes los clientes a guardar.
+     * @return el número de secuencia asignado a cada cliente por su ID, o un mapa vacío si ocurre un error.
+     */
+    @Override
+    public Map<Long, Long> appendAll(Collection<Cliente> clientes) {
+        if (clientes.isEmpty()) {
+            return Map.of();
+        }
+        List<Cliente> lista = List.copyOf(clientes);
+        LocalDateTime now = LocalDateTime.now();
+
+        try (Connection connection = dataBaseManager.connectForWrite()) {
+            connection.setAutoCommit(false);
+            try {
+                Map<Long, Long> secuencias = new HashMap<>();
+                for (int from = 0; from < lista.size(); from += APPEND_CHUNK_SIZE) {
+                    List<Cliente> tramo = lista.subList(from, Math.min(from + APPEND_CHUNK_SIZE, lista.size()));
+                    String query = "INSERT INTO ClienteOutbox (clienteId, contenido, createdAt) VALUES "
+                            + String.join(", ", Collections.nCopies(tramo.size(), "(?, ?, ?)"))
+                            + " RETURNING secuencia, clienteId";
+                    try (PreparedStatement statement = connection.prepareStatement(query)) {
+                        int index = 1;
+                        for (Cliente cliente : tramo) {
+                            statement.setLong(index++, cliente.getId());
+                            statement.setString(index++, ClienteJson.write(cliente));
+                            statement.setObject(index++, now);
+                        }
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            while (resultSet.next()) {
+                                // Si un cliente aparece varias veces, su última fila es la de mayor secuencia
+                                secuencias.merge(resultSet.getLong("clienteId"), resultSet.getLong("secuencia"), Math::max);
+                            }
+                        }
+                    }
+                }
+                connection.commit();
+                return secuencias;
+            } catch (SQLException | JsonProcessingException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            logger.error("Error al registrar las escrituras pendientes de {} clientes", clientes.size(), e);
+        }
+        return Map.of();
+    }
+
+    /**
+     * Obtiene la última escritura registrada de cada cliente.
+     *
+     * @return una lista de escrituras pendientes ordenadas por secuencia.
+     */
+    @Override
+    public List<Entrada> getPending() {
+        List<Entrada> entradas = new ArrayList<>();
+        String query = "SELECT secuencia, clienteId, contenido FROM ClienteOutbox"
+                + " WHERE secuencia IN (SELECT MAX(secuencia) FROM ClienteOutbox GROUP BY clienteId) ORDER BY secuencia";
+
+        try (Connection connection = dataBaseManager.connect();
+             PreparedStatement statement = connection.prepareStatement(query);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                String contenido = resultSet.getString("contenido");
+                entradas.add(new Entrada(resultSet.getLong("secuencia"), resultSet.getLong("clienteId"),
+                        contenido != null ? ClienteJson.read(contenido) : null));
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            logger.error("Error al leer las escrituras pendientes", e);
+        }
+        return entradas;
+    }
+
+    /**
+     * Elimina en una transacción las escrituras ya aplicadas.
+     *
+     * @param secuencias secuencia de la última escritura aplicada de cada cliente.
+     * @return número de escrituras eliminadas, o 0 si ocurre un error.
+     */
+    @Override
+    public int remove(Map<Long, Long> secuencias) {
+        if (secuencias.isEmpty()) {
+            return 0;
+        }
+        String query = "DELETE FROM ClienteOutbox WHERE clienteId = ? AND secuencia <= ?";
+
+        try (Connection connection = dataBaseManager.connectForWrite()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                for (Map.Entry<Long, Long> secuencia : secuencias.entrySet()) {
+                    statement.setLong(1, secuencia.getKey());
+                    statement.setLong(2, secuencia.getValue());
+                    statement.addBatch();
+                }
+                int borradas = 0;
+                for (int filas : statement.executeBatch()) {
+                    borradas += Math.max(filas, 0);
+                }
+                connection.commit();
+                return borradas;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error al eliminar las escrituras aplicadas", e);
+        }
+        return 0;
+    }
+}
@@ -3,6 +3,7 @@ package org.example.clientes.repositories;
 import org.example.clientes.model.Cliente;
 import reactor.core.publisher.Flux;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,24 @@ public interface ClienteRepository {
      */
     List<Cliente> getAll();
 
+    /**
+     * Obtiene una página de clientes mediante paginación por clave (keyset):
+     * los clientes cuyo ID es mayor que {@code afterId}, ordenados por ID.
+     *
+     * @param afterId ID del último cliente de la página anterior, o 0 para la primera página.
+     * @param limit Número máximo de clientes de la página.
+     * @return Lista de {@link Cliente} de la página, vacía si no hay más clientes.
+     */
+    List<Cliente> getPage(long afterId, int limit);
+
+    /**
+     * Obtiene todos los clientes como un flujo que se lee de la base de datos a medida que se consume,
+     * sin cargar todos los clientes en memoria.
+     *
+     * @return Un {@link Flux} que emite los clientes ordenados por ID.
+     */
+    Flux<Cliente> getAllAsFlux();
+
     /**
      * Obtiene un cliente por su ID.
      *
@@ -29,6 +48,14 @@ public interface ClienteRepository {
      */
     Optional<Cliente> getById(long id);
 
+    /**
+     * Obtiene varios clientes por su ID en una sola consulta.
+     *
+     * @param ids IDs de los clientes que se desean obtener.
+     * @return Lista de {@link Cliente} encontrados, ordenada por ID; los IDs inexistentes se omiten.
+     */
+    List<Cliente> getByIds(Collection<Long> ids);
+
     /**
      * Crea un nuevo cliente en la base de datos.
      *
@@ -37,6 +64,25 @@ public interface ClienteRepository {
      */
     Cliente create(Cliente cliente);
 
+    /**
+     * Crea varios clientes en la base de datos en una única transacción, insertando por lotes.
+     *
+     * @param clientes Los clientes a crear.
+     * @return La lista de clientes creados con sus ID generados, o una lista vacía si no se pudo crear ninguno.
+     */
+    List<Cliente> createAll(Collection<Cliente> clientes);
+
+    /**
+     * Aplica en una única transacción las altas, modificaciones y bajas de una sincronización,
+     * de modo que la base de datos nunca queda a medio actualizar.
+     *
+     * @param nuevos Los clientes a insertar, conservando su ID.
+     * @param modificados Los clientes cuyos datos y tarjetas se sustituyen.
+     * @param borrados Los ID de los clientes a eliminar.
+     * @return {@code true} si se aplicaron todos los cambios, {@code false} si se deshicieron por un error.
+     */
+    boolean applyChanges(Collection<Cliente> nuevos, Collection<Cliente> modificados, Collection<Long> borrados);
+
     /**
      * Actualiza un cliente existente en la base de datos.
      *
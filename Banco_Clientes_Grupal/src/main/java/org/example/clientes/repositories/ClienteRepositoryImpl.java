@@ -1,5 +1,6 @@
 package org.example.clientes.repositories;
 
+import org.example.clientes.mappers.ClienteRowMapper;
 import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Tarjeta;
 import org.example.clientes.model.Usuario;
@@ -10,9 +11,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 
 import java.sql.*;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +35,15 @@ import java.util.Optional;
      * @version 1.0-SNAPSHOT
      */
 public class ClienteRepositoryImpl implements ClienteRepository {
+    private static final String SELECT_CLIENTES = "SELECT u.id AS usuarioId, u.nombre, u.userName, u.email, u.createdAt AS usuarioCreatedAt, u.updatedAt AS usuarioUpdatedAt,"
+            + " t.id AS tarjetaId, t.numeroTarjeta, t.nombreTitular, t.fechaCaducidad, t.createdAt AS tarjetaCreatedAt, t.updatedAt AS tarjetaUpdatedAt"
+            + " FROM Usuario u LEFT JOIN Tarjeta t ON t.usuarioId = u.id";
+    private static final String SELECT_CLIENTES_PAGE = "SELECT u.id AS usuarioId, u.nombre, u.userName, u.email, u.createdAt AS usuarioCreatedAt, u.updatedAt AS usuarioUpdatedAt,"
+            + " t.id AS tarjetaId, t.numeroTarjeta, t.nombreTitular, t.fechaCaducidad, t.createdAt AS tarjetaCreatedAt, t.updatedAt AS tarjetaUpdatedAt"
+            + " FROM (SELECT * FROM Usuario WHERE id > ? ORDER BY id LIMIT ?) u LEFT JOIN Tarjeta t ON t.usuarioId = u.id"
+            + " ORDER BY u.id, t.id";
+    private static final int FETCH_SIZE = 500;
+    private static final int BATCH_SIZE = 500;
     private final Logger logger = LoggerFactory.getLogger(ClienteRepositoryImpl.class);
     private final LocalDataBaseManager dataBaseManager;
 
@@ -48,62 +58,90 @@ public class ClienteRepositoryImpl implements ClienteRepository {
 
     /**
      * Obtiene todos los clientes de la base de datos.
+     * Cada cliente aparece una sola vez con la lista completa de sus tarjetas.
      *
      * @return una lista de {@link Cliente} que contiene todos los clientes.
      * Si no hay clientes, se devuelve una lista vacía.
      */
     public List<Cliente> getAll() {
         logger.info("Obteniendo clientes...");
-        List<Cliente> clientes = new ArrayList<>();
-        String query = "SELECT u.id AS usuarioId, u.nombre, u.userName, u.email, u.createdAt AS usuarioCreatedAt, u.updatedAt AS usuarioUpdatedAt," +
-                        "t.id AS tarjetaId, t.numeroTarjeta, t.nombreTitular, t.fechaCaducidad, t.createdAt AS tarjetaCreatedAt, t.updatedAt AS tarjetaUpdatedAt " +
-                        "FROM Usuario u LEFT JOIN Tarjeta t ON u.nombre = t.nombreTitular";
+        String query = SELECT_CLIENTES + " ORDER BY u.id, t.id";
 
         try (Connection connection = dataBaseManager.connect();
              PreparedStatement statement = connection.prepareStatement(query);
              ResultSet resultSet = statement.executeQuery()) {
 
-            while (resultSet.next()) {
-                Usuario usuario = Usuario.builder()
-                        .id(resultSet.getLong("usuarioId"))
-                        .nombre(resultSet.getString("nombre"))
-                        .userName(resultSet.getString("userName"))
-                        .email(resultSet.getString("email"))
-                        .createdAt(resultSet.getObject("usuarioCreatedAt", LocalDateTime.class))
-                        .updatedAt(resultSet.getObject("usuarioUpdatedAt", LocalDateTime.class))
-                        .build();
-
-                Tarjeta tarjeta = null;
-                if (resultSet.getString("tarjetaId") != null) {
-                    tarjeta =Tarjeta.builder()
-                            .id(resultSet.getLong("tarjetaId"))
-                            .numeroTarjeta(resultSet.getString("numeroTarjeta"))
-                            .nombreTitular(resultSet.getString("nombreTitular"))
-                            .fechaCaducidad(resultSet.getObject("fechaCaducidad", LocalDate.class))
-                            .createdAt(resultSet.getObject("tarjetaCreatedAt", LocalDateTime.class))
-                            .updatedAt(resultSet.getObject("tarjetaUpdatedAt", LocalDateTime.class))
-                            .build();
-                }
+            return ClienteRowMapper.mapAll(resultSet);
+        } catch (SQLException e) {
+            logger.error("Error al obtener clientes", e);
+        }
 
-                Cliente cliente = Cliente.builder()
-                        .id(resultSet.getLong("usuarioId"))
-                        .usuario(usuario)
-                        .tarjeta(Collections.singletonList(tarjeta))
-                        .createdAt(resultSet.getObject("usuarioCreatedAt", LocalDateTime.class))
-                        .updatedAt(resultSet.getObject("usuarioUpdatedAt", LocalDateTime.class))
-                        .build();
+        return new ArrayList<>();
+    }
 
-                clientes.add(cliente);
+    /**
+     * Obtiene una página de clientes con ID mayor que {@code afterId}.
+     * La paginación se hace sobre los usuarios, por lo que cada cliente de la página
+     * incluye todas sus tarjetas.
+     *
+     * @param afterId ID del último cliente de la página anterior, o 0 para la primera página.
+     * @param limit Número máximo de clientes de la página.
+     * @return una lista de {@link Cliente} con los clientes de la página.
+     */
+    @Override
+    public List<Cliente> getPage(long afterId, int limit) {
+        logger.info("Obteniendo página de clientes después del id {}...", afterId);
+        try (Connection connection = dataBaseManager.connect();
+             PreparedStatement statement = connection.prepareStatement(SELECT_CLIENTES_PAGE)) {
+            statement.setLong(1, afterId);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return ClienteRowMapper.mapAll(resultSet);
             }
         } catch (SQLException e) {
-            logger.error("Error al obtener clientes", e);
+            logger.error("Error al obtener página de clientes", e);
         }
+        return new ArrayList<>();
+    }
 
-        return clientes;
+    /**
+     * Obtiene todos los clientes como un flujo que recorre el ResultSet bajo demanda.
+     * La conexión se mantiene abierta mientras se consume el flujo y se libera al
+     * completarse, cancelarse o producirse un error.
+     *
+     * @return un {@link Flux} de {@link Cliente} ordenados por ID.
+     */
+    @Override
+    public Flux<Cliente> getAllAsFlux() {
+        logger.info("Obteniendo clientes como flujo...");
+        String query = SELECT_CLIENTES + " ORDER BY u.id, t.id";
+        return Flux.generate(
+                () -> ClienteCursor.open(dataBaseManager.connect(), query),
+                (cursor, sink) -> {
+                    try {
+                        Cliente cliente = cursor.next();
+                        if (cliente != null) {
+                            sink.next(cliente);
+                        } else {
+                            sink.complete();
+                        }
+                    } catch (SQLException e) {
+                        logger.error("Error al obtener clientes", e);
+                        sink.error(e);
+                    }
+                    return cursor;
+                },
+                cursor -> {
+                    try {
+                        cursor.close();
+                    } catch (SQLException e) {
+                        logger.error("Error al cerrar la conexión", e);
+                    }
+                });
     }
 
     /**
-     * Obtiene un cliente por su ID.
+     * Obtiene un cliente por su ID, con todas sus tarjetas.
      *
      * @param id el ID del cliente a buscar.
      * @return un {@link Optional} que contiene el cliente si se encuentra, o un {@link Optional#empty()} si no se encuentra.
@@ -111,40 +149,14 @@ public class ClienteRepositoryImpl implements ClienteRepository {
     @Override
     public Optional<Cliente> getById(long id) {
         logger.info("Obteniendo cliente por id...");
-        String query = "SELECT u.id AS usuarioId, u.nombre, u.userName, u.email, u.createdAt AS usuarioCreatedAt, u.updatedAt AS usuarioUpdatedAt,"
-                + " t.id AS tarjetaId, t.numeroTarjeta, t.nombreTitular, t.fechaCaducidad, t.createdAt AS tarjetaCreatedAt, t.updatedAt AS tarjetaUpdatedAt"
-                + " FROM Usuario u LEFT JOIN Tarjeta t ON u.nombre = t.nombreTitular WHERE u.id = ?";
+        String query = SELECT_CLIENTES + " WHERE u.id = ? ORDER BY t.id";
         try (Connection connection = dataBaseManager.connect();
              PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setLong(1, id);
             try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    Usuario usuario = Usuario.builder()
-                            .id(resultSet.getLong("usuarioId"))
-                            .nombre(resultSet.getString("nombre"))
-                            .userName(resultSet.getString("userName"))
-                            .email(resultSet.getString("email"))
-                            .createdAt(resultSet.getObject("usuarioCreatedAt", LocalDateTime.class))
-                            .updatedAt(resultSet.getObject("usuarioUpdatedAt", LocalDateTime.class))
-                            .build();
-                    Tarjeta tarjeta = null;
-                    if (resultSet.getString("tarjetaId") != null) {
-                        tarjeta = Tarjeta.builder()
-                                .id(Long.valueOf(resultSet.getString("tarjetaId")))
-                                .numeroTarjeta(resultSet.getString("numeroTarjeta"))
-                                .nombreTitular(resultSet.getString("nombreTitular"))
-                                .fechaCaducidad(resultSet.getObject("fechaCaducidad", LocalDate.class))
-                                .createdAt(resultSet.getObject("tarjetaCreatedAt", LocalDateTime.class))
-                                .updatedAt(resultSet.getObject("tarjetaUpdatedAt", LocalDateTime.class))
-                                .build();
-                    }
-                    return Optional.of(Cliente.builder()
-                            .id(resultSet.getLong("usuarioId"))
-                            .usuario(usuario)
-                            .tarjeta(Collections.singletonList(tarjeta))
-                            .createdAt(resultSet.getObject("usuarioCreatedAt", LocalDateTime.class))
-                            .updatedAt(resultSet.getObject("usuarioUpdatedAt", LocalDateTime.class))
-                            .build());
+                List<Cliente> clientes = ClienteRowMapper.mapAll(resultSet);
+                if (!clientes.isEmpty()) {
+                    return Optional.of(clientes.get(0));
                 }
             }
         } catch (SQLException e) {
@@ -153,78 +165,338 @@ public class ClienteRepositoryImpl implements ClienteRepository {
         return Optional.empty();
     }
 
+    /**
+     * Obtiene varios clientes por su ID, con todas sus tarjetas, mediante una consulta
+     * {@code WHERE id IN (...)} por cada {@value #BATCH_SIZE} identificadores.
+     *
+     * @param ids los ID de los clientes a buscar.
+     * @return una lista de {@link Cliente} ordenada por ID con los clientes encontrados;
+     * los ID que no existen se omiten.
+     */
+    @Override
+    public List<Cliente> getByIds(Collection<Long> ids) {
+        logger.info("Obteniendo {} clientes por id...", ids.size());
+        List<Cliente> clientes = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return clientes;
+        }
+
+        List<Long> distintos = ids.stream().distinct().toList();
+        try (Connection connection = dataBaseManager.connect()) {
+            for (int from = 0; from < distintos.size(); from += BATCH_SIZE) {
+                List<Long> lote = distintos.subList(from, Math.min(from + BATCH_SIZE, distintos.size()));
+                String query = SELECT_CLIENTES + " WHERE u.id IN (" + String.join(", ", Collections.nCopies(lote.size(), "?"))
+                        + ") ORDER BY u.id, t.id";
+                try (PreparedStatement statement = connection.prepareStatement(query)) {
+                    for (int i = 0; i < lote.size(); i++) {
+                        statement.setLong(i + 1, lote.get(i));
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        clientes.addAll(ClienteRowMapper.mapAll(resultSet));
+                    }
+                }
+            }
+            return clientes;
+        } catch (SQLException e) {
+            logger.error("Error al obtener clientes por id", e);
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * Crea un nuevo cliente en la base de datos.
      *
-     * @param cliente el cliente a crear.
-     * @return el cliente creado con sus ID asignados.
+     * @param cliente el cliente a crear; no se modifica.
+     * @return una copia del cliente creado con sus ID asignados, o el cliente recibido si ocurre un error.
      */
     @Override
     public Cliente create(Cliente cliente) {
         logger.info("Creando cliente...");
 
+        try (Connection connection = dataBaseManager.connectForWrite()) {
+            return insertAll(connection, List.of(cliente)).getFirst();
+        } catch (SQLException e) {
+            logger.error("Error al crear cliente", e);
+        }
+
+        return cliente;
+    }
+
+    /**
+     * Crea varios clientes en la base de datos en una única transacción.
+     * Los usuarios y las tarjetas se insertan por lotes, reutilizando las sentencias preparadas.
+     *
+     * @param clientes los clientes a crear; no se modifican.
+     * @return copias de los clientes creados con sus ID asignados, o una lista vacía si ocurre un error.
+     */
+    @Override
+    public List<Cliente> createAll(Collection<Cliente> clientes) {
+        logger.info("Creando {} clientes...", clientes.size());
+        if (clientes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try (Connection connection = dataBaseManager.connectForWrite()) {
+            return insertAll(connection, clientes);
+        } catch (SQLException e) {
+            logger.error("Error al crear clientes", e);
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Inserta los clientes y sus tarjetas en una transacción, en lotes de {@value #BATCH_SIZE} clientes.
+     * Si falla cualquier lote se deshace toda la transacción.
+     *
+     * @param connection la conexión de escritura.
+     * @param clientes los clientes a insertar.
+     * @return copias de los clientes con los ID generados por la base de datos.
+     * @throws SQLException si ocurre un error al insertar.
+     */
+    private List<Cliente> insertAll(Connection connection, Collection<Cliente> clientes) throws SQLException {
         String userQuery = "INSERT INTO Usuario (nombre, userName, email, createdAt, updatedAt) VALUES (?, ?, ?, ?, ?)";
-        String tarjetaQuery = "INSERT INTO Tarjeta (numeroTarjeta, nombreTitular, fechaCaducidad, createdAt, updatedAt) VALUES (?, ?, ?, ?, ?)";
+        String tarjetaQuery = "INSERT INTO Tarjeta (usuarioId, numeroTarjeta, nombreTitular, fechaCaducidad, createdAt, updatedAt) VALUES (?, ?, ?, ?, ?, ?)";
 
         LocalDateTime timeStamp = LocalDateTime.now();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        List<Cliente> lista = List.copyOf(clientes);
+        List<Cliente> creados = new ArrayList<>(lista.size());
+        try (PreparedStatement statementUsuario = connection.prepareStatement(userQuery);
+             PreparedStatement statementTarjeta = connection.prepareStatement(tarjetaQuery)) {
+
+            for (int from = 0; from < lista.size(); from += BATCH_SIZE) {
+                List<Cliente> lote = lista.subList(from, Math.min(from + BATCH_SIZE, lista.size()));
+                long ultimoId = maxId(connection, "Usuario");
+                for (Cliente cliente : lote) {
+                    statementUsuario.setString(1, cliente.getUsuario().getNombre());
+                    statementUsuario.setString(2, cliente.getUsuario().getUserName());
+                    statementUsuario.setString(3, cliente.getUsuario().getEmail());
+                    statementUsuario.setObject(4, timeStamp);
+                    statementUsuario.setObject(5, timeStamp);
+                    statementUsuario.addBatch();
+                }
+                statementUsuario.executeBatch();
+                List<Long> ids = idsAfter(connection, "Usuario", ultimoId, lote.size());
+
+                List<Long> clienteIds = new ArrayList<>(lote.size());
+                List<List<Tarjeta>> tarjetas = new ArrayList<>(lote.size());
+                for (int i = 0; i < lote.size(); i++) {
+                    clienteIds.add(ids.get(i));
+                    tarjetas.add(lote.get(i).getTarjeta());
+                }
+                List<List<Tarjeta>> tarjetasCreadas = insertTarjetas(connection, statementTarjeta, clienteIds, tarjetas, timeStamp);
 
-        try (Connection connection = dataBaseManager.connect()) {
+                for (int i = 0; i < lote.size(); i++) {
+                    Cliente cliente = lote.get(i);
+                    Usuario usuario = Usuario.builder()
+                            .id(ids.get(i))
+                            .nombre(cliente.getUsuario().getNombre())
+                            .userName(cliente.getUsuario().getUserName())
+                            .email(cliente.getUsuario().getEmail())
+                            .createdAt(timeStamp)
+                            .updatedAt(timeStamp)
+                            .build();
+                    creados.add(Cliente.builder()
+                            .id(ids.get(i))
+                            .usuario(usuario)
+                            .tarjeta(tarjetasCreadas.get(i))
+                            .createdAt(timeStamp)
+                            .updatedAt(timeStamp)
+                            .build());
+                }
+            }
 
-            connection.setAutoCommit(false);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
 
-            try (PreparedStatement statementUsuario = connection.prepareStatement(userQuery)) {
-                statementUsuario.setString(1, cliente.getUsuario().getNombre());
-                statementUsuario.setString(2, cliente.getUsuario().getUserName());
-                statementUsuario.setString(3, cliente.getUsuario().getEmail());
-                statementUsuario.setObject(4, timeStamp);
-                statementUsuario.setObject(5, timeStamp);
+        return creados;
+    }
 
-                statementUsuario.executeUpdate();
+    /**
+     * Inserta en un solo lote las tarjetas de varios clientes.
+     *
+     * @param connection la conexión de escritura, dentro de la transacción en curso.
+     * @param statementTarjeta la sentencia de inserción de tarjetas.
+     * @param clienteIds los ID de los clientes propietarios.
+     * @param tarjetas las tarjetas de cada cliente, en el mismo orden, o null si no tiene; no se modifican.
+     * @param timeStamp la fecha de creación y actualización.
+     * @return copias de las tarjetas de cada cliente con los ID generados por la base de datos.
+     * @throws SQLException si ocurre un error al insertar.
+     */
+    private List<List<Tarjeta>> insertTarjetas(Connection connection, PreparedStatement statementTarjeta, List<Long> clienteIds,
+                                               List<List<Tarjeta>> tarjetas, LocalDateTime timeStamp) throws SQLException {
+        long ultimoId = maxId(connection, "Tarjeta");
+        int total = 0;
+        for (int i = 0; i < clienteIds.size(); i++) {
+            if (tarjetas.get(i) == null) {
+                continue;
+            }
+            for (Tarjeta tarjeta : tarjetas.get(i)) {
+                statementTarjeta.setLong(1, clienteIds.get(i));
+                statementTarjeta.setString(2, tarjeta.getNumeroTarjeta());
+                statementTarjeta.setString(3, tarjeta.getNombreTitular());
+                statementTarjeta.setObject(4, tarjeta.getFechaCaducidad());
+                statementTarjeta.setObject(5, timeStamp);
+                statementTarjeta.setObject(6, timeStamp);
+                statementTarjeta.addBatch();
+                total++;
+            }
+        }
+        List<Long> ids = List.of();
+        if (total > 0) {
+            statementTarjeta.executeBatch();
+            ids = idsAfter(connection, "Tarjeta", ultimoId, total);
+        }
 
-                try (ResultSet generatedKeys = statementUsuario.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        long clienteId = generatedKeys.getLong(1);
-                        cliente.getUsuario().setId(clienteId);
-                        cliente.setId(clienteId);
-                    } else {
-                        throw new SQLException("No se pudo obtener la clave generada para Usuario.");
-                    }
+        List<List<Tarjeta>> creadas = new ArrayList<>(clienteIds.size());
+        int next = 0;
+        for (List<Tarjeta> tarjetasCliente : tarjetas) {
+            List<Tarjeta> copias = new ArrayList<>();
+            if (tarjetasCliente != null) {
+                for (Tarjeta tarjeta : tarjetasCliente) {
+                    copias.add(Tarjeta.builder()
+                            .id(ids.get(next++))
+                            .numeroTarjeta(tarjeta.getNumeroTarjeta())
+                            .nombreTitular(tarjeta.getNombreTitular())
+                            .fechaCaducidad(tarjeta.getFechaCaducidad())
+                            .createdAt(timeStamp)
+                            .updatedAt(timeStamp)
+                            .build());
                 }
             }
+            creadas.add(copias);
+        }
+        return creadas;
+    }
 
-            if (cliente.getTarjeta() != null && !cliente.getTarjeta().isEmpty()) {
-                for (Tarjeta tarjeta : cliente.getTarjeta()) {
-                    try (PreparedStatement statementTarjeta = connection.prepareStatement(tarjetaQuery, Statement.RETURN_GENERATED_KEYS)) {
-                        statementTarjeta.setString(1, tarjeta.getNumeroTarjeta());
-                        statementTarjeta.setString(2, tarjeta.getNombreTitular());
-                        statementTarjeta.setObject(3, tarjeta.getFechaCaducidad());
-                        statementTarjeta.setObject(4, timeStamp);
-                        statementTarjeta.setObject(5, timeStamp);
-                        statementTarjeta.executeUpdate();
+    /**
+     * Obtiene el mayor ID de la tabla, o 0 si está vacía.
+     */
+    private long maxId(Connection connection, String tabla) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabla)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
 
-                        try (ResultSet generatedKeys = statementTarjeta.getGeneratedKeys()) {
-                            if (generatedKeys.next()) {
-                                tarjeta.setId(generatedKeys.getLong(1));
-                            } else {
-                                throw new SQLException("No se pudo obtener la clave generada para Tarjeta.");
-                            }
-                        }
-                    }
+    /**
+     * Obtiene, en orden de inserción, los ID generados por el último lote de la transacción.
+     * Con AUTOINCREMENT cada fila nueva recibe un ID mayor que cualquiera existente y solo hay
+     * una conexión de escritura, así que las filas con ID mayor que el máximo previo al lote son
+     * exactamente las del lote, sin suponer que sus ID sean consecutivos.
+     */
+    private List<Long> idsAfter(Connection connection, String tabla, long ultimoId, int count) throws SQLException {
+        List<Long> ids = new ArrayList<>(count);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id FROM " + tabla + " WHERE id > ? ORDER BY id")) {
+            statement.setLong(1, ultimoId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
                 }
             }
+        }
+        if (ids.size() != count) {
+            throw new SQLException("Se esperaban " + count + " claves generadas en " + tabla + " y se obtuvieron " + ids.size());
+        }
+        return ids;
+    }
 
-            connection.commit();
+    /**
+     * Aplica en una única transacción los cambios calculados al sincronizar con la base de datos remota.
+     * Los clientes nuevos se insertan conservando su ID; a los modificados se les actualiza el usuario
+     * y se sustituyen sus tarjetas. Como todo se confirma a la vez, los lectores nunca ven la base
+     * de datos a medio sincronizar.
+     *
+     * @param nuevos los clientes que no existen en local.
+     * @param modificados los clientes que existen en local con datos distintos.
+     * @param borrados los ID de los clientes locales que ya no existen en remoto.
+     * @return {@code true} si los cambios se aplicaron, {@code false} si ocurrió un error y se deshicieron.
+     */
+    @Override
+    public boolean applyChanges(Collection<Cliente> nuevos, Collection<Cliente> modificados, Collection<Long> borrados) {
+        logger.info("Aplicando cambios: {} nuevos, {} modificados, {} borrados", nuevos.size(), modificados.size(), borrados.size());
 
-            cliente.setCreatedAt(timeStamp);
-            cliente.setUpdatedAt(timeStamp);
+        String insertUsuarioQuery = "INSERT INTO Usuario (id, nombre, userName, email, createdAt, updatedAt) VALUES (?, ?, ?, ?, ?, ?)";
+        String updateUsuarioQuery = "UPDATE Usuario SET nombre = ?, userName = ?, email = ?, updatedAt = ? WHERE id = ?";
+        String deleteUsuarioQuery = "DELETE FROM Usuario WHERE id = ?";
+        String insertTarjetaQuery = "INSERT INTO Tarjeta (usuarioId, numeroTarjeta, nombreTitular, fechaCaducidad, createdAt, updatedAt) VALUES (?, ?, ?, ?, ?, ?)";
+        String deleteTarjetaQuery = "DELETE FROM Tarjeta WHERE usuarioId = ?";
 
-            return cliente;
+        LocalDateTime timeStamp = LocalDateTime.now();
 
+        try (Connection connection = dataBaseManager.connectForWrite()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statementInsertUsuario = connection.prepareStatement(insertUsuarioQuery);
+                 PreparedStatement statementUpdateUsuario = connection.prepareStatement(updateUsuarioQuery);
+                 PreparedStatement statementDeleteUsuario = connection.prepareStatement(deleteUsuarioQuery);
+                 PreparedStatement statementInsertTarjeta = connection.prepareStatement(insertTarjetaQuery);
+                 PreparedStatement statementDeleteTarjeta = connection.prepareStatement(deleteTarjetaQuery)) {
+
+                for (Long id : borrados) {
+                    statementDeleteTarjeta.setLong(1, id);
+                    statementDeleteTarjeta.addBatch();
+                    statementDeleteUsuario.setLong(1, id);
+                    statementDeleteUsuario.addBatch();
+                }
+                for (Cliente cliente : modificados) {
+                    statementDeleteTarjeta.setLong(1, cliente.getId());
+                    statementDeleteTarjeta.addBatch();
+                    statementUpdateUsuario.setString(1, cliente.getUsuario().getNombre());
+                    statementUpdateUsuario.setString(2, cliente.getUsuario().getUserName());
+                    statementUpdateUsuario.setString(3, cliente.getUsuario().getEmail());
+                    statementUpdateUsuario.setObject(4, timeStamp);
+                    statementUpdateUsuario.setLong(5, cliente.getId());
+                    statementUpdateUsuario.addBatch();
+                }
+                statementDeleteTarjeta.executeBatch();
+                statementDeleteUsuario.executeBatch();
+                statementUpdateUsuario.executeBatch();
+
+                for (Cliente cliente : nuevos) {
+                    statementInsertUsuario.setLong(1, cliente.getId());
+                    statementInsertUsuario.setString(2, cliente.getUsuario().getNombre());
+                    statementInsertUsuario.setString(3, cliente.getUsuario().getUserName());
+                    statementInsertUsuario.setString(4, cliente.getUsuario().getEmail());
+                    statementInsertUsuario.setObject(5, timeStamp);
+                    statementInsertUsuario.setObject(6, timeStamp);
+                    statementInsertUsuario.addBatch();
+                }
+                statementInsertUsuario.executeBatch();
+
+                // Los clientes recibidos pueden estar compartidos con la caché, así que no se les asignan los ID
+                List<Long> clienteIds = new ArrayList<>();
+                List<List<Tarjeta>> tarjetas = new ArrayList<>();
+                for (Cliente cliente : modificados) {
+                    clienteIds.add(cliente.getId());
+                    tarjetas.add(cliente.getTarjeta());
+                }
+                for (Cliente cliente : nuevos) {
+                    clienteIds.add(cliente.getId());
+                    tarjetas.add(cliente.getTarjeta());
+                }
+                insertTarjetas(connection, statementInsertTarjeta, clienteIds, tarjetas, timeStamp);
+
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            logger.error("Error al crear cliente", e);
+            logger.error("Error al aplicar los cambios de la sincronización", e);
         }
 
-        return cliente;
+        return false;
     }
 
     @Override
@@ -232,11 +504,11 @@ public class ClienteRepositoryImpl implements ClienteRepository {
         logger.info("Actualizando cliente...");
 
         String userQuery = "UPDATE Usuario SET nombre = ?, userName = ?, email = ?, updatedAt = ? WHERE id = ?";
-        String tarjetaQuery = "UPDATE Tarjeta SET numeroTarjeta = ?, nombreTitular = ?, fechaCaducidad = ?, updatedAt = ? WHERE nombreTitular = ?";
+        String tarjetaQuery = "UPDATE Tarjeta SET numeroTarjeta = ?, nombreTitular = ?, fechaCaducidad = ?, updatedAt = ? WHERE usuarioId = ?";
 
         LocalDateTime timeStamp = LocalDateTime.now();
 
-        try (Connection connection = dataBaseManager.connect()) {
+        try (Connection connection = dataBaseManager.connectForWrite()) {
 
             connection.setAutoCommit(false);
 
@@ -256,7 +528,7 @@ public class ClienteRepositoryImpl implements ClienteRepository {
                         statementTarjeta.setString(2, tarjeta.getNombreTitular());
                         statementTarjeta.setObject(3, tarjeta.getFechaCaducidad());
                         statementTarjeta.setObject(4, timeStamp);
-                        statementTarjeta.setString(5, cliente.getUsuario().getNombre());
+                        statementTarjeta.setLong(5, id);
                         statementTarjeta.executeUpdate();
                     }
                 }
@@ -279,9 +551,9 @@ public class ClienteRepositoryImpl implements ClienteRepository {
         logger.info("Borrando cliente...");
 
         String deleteUsuarioQuery = "DELETE FROM Usuario WHERE id = ?";
-        String deleteTarjetaQuery = "DELETE FROM Tarjeta WHERE nombreTitular = ?";
+        String deleteTarjetaQuery = "DELETE FROM Tarjeta WHERE usuarioId = ?";
 
-        try (Connection connection = dataBaseManager.connect()) {
+        try (Connection connection = dataBaseManager.connectForWrite()) {
             connection.setAutoCommit(false);
 
             try (PreparedStatement statementTarjeta = connection.prepareStatement(deleteTarjetaQuery)) {
@@ -316,7 +588,7 @@ public class ClienteRepositoryImpl implements ClienteRepository {
         String usuarioQuery = "DELETE FROM Usuario";
         String tarjetaQuery = "DELETE FROM Tarjeta";
 
-        try (Connection connection = dataBaseManager.connect()) {
+        try (Connection connection = dataBaseManager.connectForWrite()) {
 
             connection.setAutoCommit(false);
 
@@ -343,4 +615,48 @@ public class ClienteRepositoryImpl implements ClienteRepository {
 
         return false;
     }
+
+    /**
+     * Cursor sobre el ResultSet de clientes que agrupa las filas de cada usuario
+     * y devuelve los clientes de uno en uno.
+     */
+    private static final class ClienteCursor {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final ClienteRowMapper mapper = new ClienteRowMapper();
+        private boolean exhausted = false;
+
+        private ClienteCursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+        private static ClienteCursor open(Connection connection, String query) throws SQLException {
+            try {
+                PreparedStatement statement = connection.prepareStatement(query);
+                statement.setFetchSize(FETCH_SIZE);
+                return new ClienteCursor(connection, statement, statement.executeQuery());
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        private Cliente next() throws SQLException {
+            while (!exhausted && resultSet.next()) {
+                Cliente cliente = mapper.accept(resultSet);
+                if (cliente != null) {
+                    return cliente;
+                }
+            }
+            exhausted = true;
+            return mapper.finish();
+        }
+
+        private void close() throws SQLException {
+            connection.close();
+        }
+    }
 }
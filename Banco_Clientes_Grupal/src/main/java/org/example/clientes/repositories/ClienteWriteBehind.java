@@ -0,0 +1,428 @@
+package org.example.clientes.repositories;
+
+import org.example.clientes.model.Cliente;
+import org.example.config.ConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de escritura diferida (write-behind) sobre la base de datos local.
+ * Las altas, modificaciones y bajas se encolan y se devuelven de inmediato; un hilo dedicado las
+ * escribe por lotes con {@link ClienteRepository#applyChanges} cuando la cola alcanza
+ * 'writeBehind.batchSize' clientes o cada 'writeBehind.flushInterval' milisegundos.
+ * Las escrituras pendientes sobre un mismo cliente se combinan y solo se escribe la última.
+ *
+ * <p>Cada escritura se registra en el diario {@link ClienteOutbox} antes de aceptarse y se borra de él
+ * cuando se aplica; al crear la cola se recuperan las que quedaron sin aplicar, por lo que un reinicio
+ * no pierde escrituras. Mientras están pendientes, {@link #isPendingDelete} y {@link #getPendingSave}
+ * permiten que las lecturas respondan con ellas en lugar de con el estado antiguo de la base de datos.
+ * {@link #saveAll} registra todos sus clientes en el diario en una sola transacción. Si el diario falla, la
+ * escritura solo se conserva en memoria y, al aplicarla, se borran del diario las escrituras anteriores del
+ * mismo cliente para que un reinicio no las reaplique sobre ella.</p>
+ *
+ * <p>Si un lote falla, sus escrituras se reencolan y en el siguiente volcado se aplican una a una,
+ * de modo que un cliente con datos inválidos no bloquea al resto. Una escritura que falla
+ * 'writeBehind.maxRetries' veces se retira de la cola y se registra como error, pero se conserva en
+ * el diario y se vuelve a intentar al reiniciar. Al cerrar la cola se vuelcan todas las escrituras pendientes.</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public class ClienteWriteBehind implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ClienteWriteBehind.class);
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_FLUSH_INTERVAL = 200;
+    private static final int DEFAULT_MAX_RETRIES = 5;
+
+    private final ClienteRepository clienteRepository;
+    private final ClienteOutbox outbox;
+    private final int batchSize;
+    private final int maxRetries;
+    private final ScheduledExecutorService flusher;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong ultimaSecuencia = new AtomicLong();
+    private final Object lock = new Object();
+    private LinkedHashMap<Long, Escritura> pendientes = new LinkedHashMap<>();
+    private Map<Long, Escritura> enVuelo = Map.of();
+    private volatile boolean closed;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+
+    /**
+     * Constructor que configura la cola a partir de las propiedades 'writeBehind.batchSize',
+     * 'writeBehind.flushInterval' (en milisegundos) y 'writeBehind.maxRetries'.
+     *
+     * @param clienteRepository el repositorio local en el que se escriben los clientes.
+     * @param outbox el diario en el que se registran las escrituras hasta aplicarse.
+     * @param config Configuración de propiedades de la aplicación.
+     */
+    public ClienteWriteBehind(ClienteRepository clienteRepository, ClienteOutbox outbox, ConfigProperties config) {
+        this(clienteRepository, outbox,
+                Integer.parseInt(config.getProperty("writeBehind.batchSize", String.valueOf(DEFAULT_BATCH_SIZE))),
+                Long.parseLong(config.getProperty("writeBehind.flushInterval", String.valueOf(DEFAULT_FLUSH_INTERVAL))),
+                Integer.parseInt(config.getProperty("writeBehind.maxRetries", String.valueOf(DEFAULT_MAX_RETRIES))));
+    }
+
+    /**
+     * Constructor que configura la cola con los valores indicados.
+     *
+     * @param clienteRepository el repositorio local en el que se escriben los clientes.
+     * @param outbox el diario en el que se registran las escrituras hasta aplicarse.
+     * @param batchSize número de clientes pendientes que provoca un volcado inmediato.
+     * @param flushIntervalMillis tiempo máximo en milisegundos entre volcados.
+     * @param maxRetries número de intentos antes de retirar una escritura de la cola.
+     */
+    public ClienteWriteBehind(ClienteRepository clienteRepository, ClienteOutbox outbox, int batchSize, long flushIntervalMillis, int maxRetries) {
+        if (batchSize <= 0 || flushIntervalMillis <= 0 || maxRetries <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote, el intervalo y los reintentos deben ser mayores que 0");
+        }
+        this.clienteRepository = clienteRepository;
+        this.outbox = outbox;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "local-db-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (ClienteOutbox.Entrada entrada : outbox.getPending()) {
+            pendientes.put(entrada.clienteId(), new Escritura(entrada.clienteId(), entrada.cliente(), 0, entrada.secuencia(), true));
+            ultimaSecuencia.accumulateAndGet(entrada.secuencia(), Math::max);
+        }
+        if (!pendientes.isEmpty()) {
+            logger.info("Recuperadas {} escrituras locales pendientes del diario", pendientes.size());
+        }
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.debug("Cola de escritura local creada con lotes de {}, intervalo {} ms y {} reintentos", batchSize, flushIntervalMillis, maxRetries);
+    }
+
+    /**
+     * Encola la escritura de un cliente: se inserta con su ID o sustituye por completo al existente.
+     *
+     * @param cliente el cliente a guardar.
+     */
+    public void save(Cliente cliente) {
+        enqueue(cliente.getId(), cliente);
+    }
+
+    /**
+     * Encola la escritura de varios clientes.
+     *
+     * @param clientes los clientes a guardar.
+     */
+    public void saveAll(Collection<Cliente> clientes) {
+        checkOpen();
+        if (clientes.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> secuencias = outbox.appendAll(clientes);
+        if (secuencias.isEmpty()) {
+            logger.warn("Las escrituras de {} clientes no se pudieron registrar en el diario y solo se conservan en memoria", clientes.size());
+        }
+        int size = 0;
+        for (Cliente cliente : clientes) {
+            size = accept(cliente.getId(), cliente, secuencias.getOrDefault(cliente.getId(), -1L));
+        }
+        requestFlushIfFull(size);
+    }
+
+    /**
+     * Encola el borrado de un cliente.
+     *
+     * @param id el ID del cliente a borrar.
+     */
+    public void delete(long id) {
+        enqueue(id, null);
+    }
+
+    /**
+     * Indica si hay una escritura pendiente sobre el cliente, incluida la que se esté volcando.
+     *
+     * @param id el ID del cliente.
+     * @return {@code true} si el cliente tiene una escritura aún no aplicada.
+     */
+    public boolean isPending(long id) {
+        return getEscritura(id) != null;
+    }
+
+    /**
+     * Indica si hay alguna escritura pendiente, incluidas las que se estén volcando.
+     *
+     * @return {@code true} si alguna escritura aún no se ha aplicado.
+     */
+    public boolean hasPending() {
+        synchronized (lock) {
+            return !pendientes.isEmpty() || !enVuelo.isEmpty();
+        }
+    }
+
+    /**
+     * Indica si la última escritura pendiente del cliente es un borrado.
+     *
+     * @param id el ID del cliente.
+     * @return {@code true} si el cliente está borrado aunque siga en la base de datos local.
+     */
+    public boolean isPendingDelete(long id) {
+        Escritura escritura = getEscritura(id);
+        return escritura != null && escritura.cliente == null;
+    }
+
+    /**
+     * Obtiene el cliente de la última escritura pendiente, si es un guardado.
+     *
+     * @param id el ID del cliente.
+     * @return el cliente pendiente de guardar, o {@link Optional#empty()} si no hay guardado pendiente.
+     */
+    public Optional<Cliente> getPendingSave(long id) {
+        Escritura escritura = getEscritura(id);
+        return escritura != null ? Optional.ofNullable(escritura.cliente) : Optional.empty();
+    }
+
+    private Escritura getEscritura(long id) {
+        synchronized (lock) {
+            Escritura escritura = pendientes.get(id);
+            return escritura != null ? escritura : enVuelo.get(id);
+        }
+    }
+
+    /**
+     * Devuelve el número de clientes con escrituras pendientes.
+     *
+     * @return el tamaño actual de la cola.
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pendientes.size();
+        }
+    }
+
+    /**
+     * Devuelve el número de escrituras aplicadas en la base de datos local.
+     *
+     * @return las escrituras volcadas con éxito.
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * Devuelve el número de volcados que fallaron y se reintentaron.
+     *
+     * @return los volcados fallidos.
+     */
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * Devuelve el número de escrituras retiradas de la cola tras agotar los reintentos.
+     * Siguen en el diario y se vuelven a intentar al reiniciar.
+     *
+     * @return las escrituras retiradas de la cola.
+     */
+    public long getParkedCount() {
+        return parked.sum();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("La cola de escritura local está cerrada");
+        }
+    }
+
+    private void enqueue(long id, Cliente cliente) {
+        checkOpen();
+        // Se registra en el diario antes de aceptarla para que sobreviva a un reinicio
+        long secuencia = outbox.append(id, cliente);
+        if (secuencia < 0) {
+            logger.warn("La escritura del cliente {} no se pudo registrar en el diario y solo se conserva en memoria", id);
+        }
+        requestFlushIfFull(accept(id, cliente, secuencia));
+    }
+
+    /**
+     * Añade a la cola una escritura ya registrada en el diario con la secuencia indicada, o -1 si no se pudo registrar.
+     *
+     * @return el tamaño de la cola tras añadirla.
+     */
+    private int accept(long id, Cliente cliente, long secuencia) {
+        Escritura escritura;
+        if (secuencia >= 0) {
+            ultimaSecuencia.accumulateAndGet(secuencia, Math::max);
+            escritura = new Escritura(id, cliente, 0, secuencia, true);
+        } else {
+            // Las filas del cliente registradas hasta ahora son anteriores a esta escritura y se borrarán al aplicarla
+            escritura = new Escritura(id, cliente, 0, ultimaSecuencia.get(), false);
+        }
+        synchronized (lock) {
+            // Si dos escrituras del mismo cliente llegan a la vez, prevalece la última registrada en el diario
+            pendientes.merge(id, escritura, (actual, nueva) -> !nueva.registrada || nueva.secuencia >= actual.secuencia ? nueva : actual);
+            return pendientes.size();
+        }
+    }
+
+    private void requestFlushIfFull(int size) {
+        if (size >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushSafely();
+            });
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Error al volcar la cola de escritura local", e);
+        }
+    }
+
+    /**
+     * Vuelca en la base de datos local todas las escrituras pendientes.
+     * Las escrituras nuevas se aplican en lotes de 'writeBehind.batchSize' clientes, cada uno en
+     * una transacción; las que ya fallaron antes se aplican de una en una.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Escritura> lote;
+            synchronized (lock) {
+                if (pendientes.isEmpty()) {
+                    return;
+                }
+                lote = new ArrayList<>(pendientes.values());
+                // Las escrituras siguen visibles para las lecturas hasta que se apliquen
+                enVuelo = pendientes;
+                pendientes = new LinkedHashMap<>();
+            }
+
+            List<Escritura> nuevas = new ArrayList<>();
+            for (Escritura escritura : lote) {
+                if (escritura.intentos > 0) {
+                    write(List.of(escritura));
+                } else {
+                    nuevas.add(escritura);
+                }
+            }
+            for (int from = 0; from < nuevas.size(); from += batchSize) {
+                write(nuevas.subList(from, Math.min(from + batchSize, nuevas.size())));
+            }
+        } finally {
+            synchronized (lock) {
+                enVuelo = Map.of();
+            }
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<Escritura> lote) {
+        List<Cliente> guardados = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (Escritura escritura : lote) {
+            ids.add(escritura.id);
+            if (escritura.cliente != null) {
+                guardados.add(escritura.cliente);
+            }
+        }
+
+        boolean aplicado;
+        try {
+            // Borrar antes de insertar convierte cada guardado en una sustitución completa del cliente
+            aplicado = clienteRepository.applyChanges(guardados, List.of(), ids);
+        } catch (RuntimeException e) {
+            logger.error("Error al escribir {} clientes en la base de datos local", lote.size(), e);
+            aplicado = false;
+        }
+
+        if (aplicado) {
+            written.add(lote.size());
+            Map<Long, Long> secuencias = new HashMap<>();
+            for (Escritura escritura : lote) {
+                secuencias.put(escritura.id, escritura.secuencia);
+            }
+            // Si falla, se reaplicarán al reiniciar; aplicar de nuevo un guardado o un borrado no cambia el resultado
+            outbox.remove(secuencias);
+            return;
+        }
+        failedFlushes.increment();
+        synchronized (lock) {
+            for (Escritura escritura : lote) {
+                if (escritura.intentos + 1 >= maxRetries) {
+                    parked.increment();
+                    if (escritura.registrada) {
+                        logger.error("La escritura del cliente {} falló {} veces: se retira de la cola y se reintentará desde el diario al reiniciar",
+                                escritura.id, maxRetries);
+                    } else {
+                        logger.error("La escritura del cliente {} falló {} veces y no está en el diario: se pierde", escritura.id, maxRetries);
+                    }
+                } else {
+                    // Una escritura posterior del mismo cliente sustituye a la que falló
+                    pendientes.putIfAbsent(escritura.id, new Escritura(escritura.id, escritura.cliente, escritura.intentos + 1,
+                            escritura.secuencia, escritura.registrada));
+                }
+            }
+        }
+    }
+
+    /**
+     * Cierra la cola: deja de aceptar escrituras, detiene el volcado periódico y vuelca
+     * todas las escrituras pendientes, reintentando hasta agotar los intentos de cada una.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        while (getPendingCount() > 0) {
+            flush();
+        }
+        logger.debug("Cola de escritura local cerrada con {} escrituras aplicadas y {} retiradas", written.sum(), parked.sum());
+    }
+
+    /**
+     * Escritura pendiente de un cliente; sin cliente representa un borrado.
+     * La secuencia es la de su registro en el diario o, si no se pudo registrar, la última secuencia
+     * conocida al encolarla; al aplicarla se borran del diario las filas del cliente hasta ella.
+     */
+    private static final class Escritura {
+        private final long id;
+        private final Cliente cliente;
+        private final int intentos;
+        private final long secuencia;
+        private final boolean registrada;
+
+        private Escritura(long id, Cliente cliente, int intentos, long secuencia, boolean registrada) {
+            this.id = id;
+            this.cliente = cliente;
+            this.intentos = intentos;
+            this.secuencia = secuencia;
+            this.registrada = registrada;
+        }
+    }
+}
@@ -3,6 +3,10 @@ package org.example.clientes.repositories;
 import org.example.clientes.model.Tarjeta;
 import org.example.common.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Interfaz para el repositorio remoto de tarjetas, que extiende la interfaz general de repositorios.
  * Permite la gestión de entidades de tipo Tarjeta.
@@ -12,4 +16,19 @@ import org.example.common.Repository;
  */
 public interface TarjetaRemoteRepository extends Repository<Tarjeta, Long> {
 
+    /**
+     * Obtiene las tarjetas de un titular.
+     *
+     * @param nombreTitular Nombre del titular de las tarjetas.
+     * @return Lista de tarjetas del titular, vacía si no tiene ninguna.
+     */
+    List<Tarjeta> getByTitular(String nombreTitular);
+
+    /**
+     * Obtiene en una sola consulta las tarjetas de varios titulares.
+     *
+     * @param nombresTitulares Nombres de los titulares.
+     * @return Mapa con las tarjetas agrupadas por nombre del titular; los titulares sin tarjetas no aparecen.
+     */
+    Map<String, List<Tarjeta>> getByTitulares(Collection<String> nombresTitulares);
 }
@@ -8,7 +8,10 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -62,15 +65,7 @@ public class TarjetaRemoteRepositoryImpl implements TarjetaRemoteRepository {
              ResultSet resultSet = statement.executeQuery()) {
 
             while (resultSet.next()){
-                Tarjeta tarjeta = Tarjeta.builder()
-                        .id(resultSet.getLong("id"))
-                        .nombreTitular(resultSet.getString("nombreTitular"))
-                        .numeroTarjeta(resultSet.getString("numeroTarjeta"))
-                        .fechaCaducidad(resultSet.getObject("fechaCaducidad", LocalDate.class))
-                        .createdAt(resultSet.getObject("createdAt", LocalDateTime.class))
-                        .updatedAt(resultSet.getObject("updatedAt", LocalDateTime.class))
-                        .build();
-                tarjetas.add(tarjeta);
+                tarjetas.add(toTarjeta(resultSet));
             }
             logger.info("Tarjetas obtenidas: {}", tarjetas);
         } catch (SQLException e) {
@@ -95,14 +90,7 @@ public class TarjetaRemoteRepositoryImpl implements TarjetaRemoteRepository {
                 statement.setLong(1, id);
                 ResultSet resultSet = statement.executeQuery();
                 if (resultSet.next()) {
-                    Tarjeta tarjeta = Tarjeta.builder()
-                            .id(resultSet.getLong("id"))
-                            .nombreTitular(resultSet.getString("nombreTitular"))
-                            .numeroTarjeta(resultSet.getString("numeroTarjeta"))
-                            .fechaCaducidad(resultSet.getObject("fechaCaducidad", LocalDate.class))
-                            .createdAt(resultSet.getObject("createdAt", LocalDateTime.class))
-                            .updatedAt(resultSet.getObject("updatedAt", LocalDateTime.class))
-                            .build();
+                    Tarjeta tarjeta = toTarjeta(resultSet);
                     logger.info("Tarjeta encontrada: {}", tarjeta);
                     return Optional.of(tarjeta);
                 }
@@ -112,6 +100,63 @@ public class TarjetaRemoteRepositoryImpl implements TarjetaRemoteRepository {
         return Optional.empty();
     }
 
+    /**
+     * Obtiene las tarjetas de un titular, usando el índice sobre la columna nombreTitular.
+     *
+     * @param nombreTitular el nombre del titular
+     * @return una lista con las tarjetas del titular
+     */
+    @Override
+    public List<Tarjeta> getByTitular(String nombreTitular) {
+        logger.info("Obteniendo tarjetas del titular: {}", nombreTitular);
+        List<Tarjeta> tarjetas = new ArrayList<>();
+        String query = "SELECT * FROM tarjetas WHERE nombreTitular = ? ORDER BY id";
+
+        try (Connection connection = remoteDbManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, nombreTitular);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    tarjetas.add(toTarjeta(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener las tarjetas del titular: {}", nombreTitular, e);
+        }
+        return tarjetas;
+    }
+
+    /**
+     * Obtiene las tarjetas de varios titulares en una sola consulta, pasando los nombres
+     * como un array de PostgreSQL para no construir una cláusula IN por cada tamaño de lista.
+     *
+     * @param nombresTitulares los nombres de los titulares
+     * @return un mapa con las tarjetas agrupadas por nombre del titular
+     */
+    @Override
+    public Map<String, List<Tarjeta>> getByTitulares(Collection<String> nombresTitulares) {
+        logger.info("Obteniendo tarjetas de {} titulares...", nombresTitulares.size());
+        Map<String, List<Tarjeta>> tarjetas = new HashMap<>();
+        if (nombresTitulares.isEmpty()) {
+            return tarjetas;
+        }
+        String query = "SELECT * FROM tarjetas WHERE nombreTitular = ANY (?) ORDER BY id";
+
+        try (Connection connection = remoteDbManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setArray(1, connection.createArrayOf("text", nombresTitulares.toArray()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Tarjeta tarjeta = toTarjeta(resultSet);
+                    tarjetas.computeIfAbsent(tarjeta.getNombreTitular(), k -> new ArrayList<>()).add(tarjeta);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener las tarjetas de los titulares", e);
+        }
+        return tarjetas;
+    }
+
     /**
      * Crea una nueva tarjeta en la base de datos.
      *
@@ -210,4 +255,15 @@ public class TarjetaRemoteRepositoryImpl implements TarjetaRemoteRepository {
         }
         return false;
     }
+
+    private Tarjeta toTarjeta(ResultSet resultSet) throws SQLException {
+        return Tarjeta.builder()
+                .id(resultSet.getLong("id"))
+                .nombreTitular(resultSet.getString("nombreTitular"))
+                .numeroTarjeta(resultSet.getString("numeroTarjeta"))
+                .fechaCaducidad(resultSet.getObject("fechaCaducidad", LocalDate.class))
+                .createdAt(resultSet.getObject("createdAt", LocalDateTime.class))
+                .updatedAt(resultSet.getObject("updatedAt", LocalDateTime.class))
+                .build();
+    }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Notificacion;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+
 /**
  * Interfaz para manejar notificaciones relacionadas con clientes.
  * Proporciona métodos para obtener notificaciones como un flujo reactivo y para enviar nuevas notificaciones.
@@ -20,6 +22,24 @@ public interface ClienteNotificacion {
      */
     Flux<Notificacion<Cliente>> getNotificationAsFlux();
 
+    /**
+     * Obtiene un flujo reactivo de notificaciones de clientes que empieza por las registradas desde
+     * un número de secuencia y continúa con las nuevas, para reanudar el consumo tras una desconexión.
+     * Si alguna de las notificaciones pedidas ya no se conserva en el registro, el flujo termina con error.
+     *
+     * @param fromSequence el número de secuencia de la primera notificación a recibir, incluido
+     * @return un {@link Flux} que emite las notificaciones en orden de secuencia
+     */
+    Flux<Notificacion<Cliente>> getNotificationAsFlux(long fromSequence);
+
+    /**
+     * Obtiene un flujo reactivo de lotes de notificaciones de clientes, agrupadas por ventanas de
+     * tiempo y tamaño. Dentro de cada lote solo aparece la última notificación de cada cliente.
+     *
+     * @return un {@link Flux} que emite listas no vacías de notificaciones para clientes
+     */
+    Flux<List<Notificacion<Cliente>>> getNotificationBatchesAsFlux();
+
     /**
      * Envía una notificación para un cliente específico.
      *
@@ -1,29 +1,201 @@
 package org.example.clientes.services;
 
+import lombok.Builder;
+import lombok.Data;
 import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Notificacion;
+import org.example.clientes.repositories.ClienteChangeLog;
+import org.example.config.ConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementación de la interfaz {@link ClienteNotificacion} para gestionar notificaciones de clientes.
- * Esta clase sigue el patrón Singleton y utiliza un flujo reactivo para manejar las notificaciones.
+ * Esta clase sigue el patrón Singleton y publica las notificaciones en un {@link Sinks.Many} multicast.
+ *
+ * <p>Cada suscriptor dispone de un buffer acotado a 'notifications.bufferSize' notificaciones y, cuando
+ * no consume a tiempo, se aplica la estrategia 'notifications.overflow':</p>
+ * <ul>
+ *     <li>{@code drop-oldest}: se descarta la notificación más antigua de su buffer.</li>
+ *     <li>{@code latest}: solo se conserva la última notificación pendiente.</li>
+ *     <li>{@code block}: el buffer es compartido y quien notifica espera hasta 'notifications.blockTimeout'
+ *     milisegundos a que el suscriptor más lento libere espacio; si no lo hace, la notificación se descarta.</li>
+ * </ul>
+ * <p>Varios hilos pueden notificar a la vez: la emisión se serializa internamente. Si no hay ningún
+ * suscriptor la notificación se descarta en lugar de lanzar una excepción.</p>
+ * <p>Con registro de cambios, dos notificaciones simultáneas pueden emitirse en vivo en distinto orden que
+ * sus secuencias; {@link #getNotificationAsFlux(long)} las reordena con el registro.</p>
+ * <p>Las notificaciones también pueden consumirse por lotes de hasta 'notifications.batch.size'
+ * notificaciones o 'notifications.batch.window' milisegundos, combinando las de un mismo cliente.</p>
+ * <p>Si se proporciona un {@link ClienteChangeLog}, cada notificación se registra con su número de secuencia
+ * antes de emitirse, de modo que un suscriptor puede reanudar desde una secuencia con
+ * {@link #getNotificationAsFlux(long)}. El registro conserva las últimas 'notifications.log.retention'
+ * notificaciones y se compacta en segundo plano, fuera del hilo que notifica.</p>
  *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
  * @version 1.0-SNAPSHOT
  */
 public class ClienteNotificacionImpl implements ClienteNotificacion {
+    private static final Logger logger = LoggerFactory.getLogger(ClienteNotificacionImpl.class);
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+    private static final long DEFAULT_BLOCK_TIMEOUT = 1000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_BATCH_WINDOW = 250;
+    private static final long DEFAULT_LOG_RETENTION = 100_000;
+    private static final int COMPACT_EVERY = 1000;
+    private static final int LOG_PAGE_SIZE = 500;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
     private static ClienteNotificacionImpl INSTANCE;
+
+    private final int bufferSize;
+    private final Overflow overflow;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final ClienteChangeLog changeLog;
+    private final long logRetention;
+    private final Sinks.Many<Notificacion<Cliente>> sink;
     private final Flux<Notificacion<Cliente>> clientesNotificationFlux;
-    private FluxSink<Notificacion<Cliente>> clientesNotification;
+    private final ReentrantLock emitLock = new ReentrantLock();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final AtomicLong emitted = new AtomicLong();
+    private final LongAdder undelivered = new LongAdder();
+    private final AtomicLong nextSubscriberId = new AtomicLong();
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
 
     /**
-     * Constructor privado que inicializa el flujo de notificaciones de clientes.
+     * Estrategia que se aplica cuando un suscriptor no consume las notificaciones a tiempo.
+     */
+    public enum Overflow {
+        DROP_OLDEST("drop-oldest"), LATEST("latest"), BLOCK("block");
+
+        private final String key;
+
+        Overflow(String key) {
+            this.key = key;
+        }
+
+        private static Overflow of(String value) {
+            for (Overflow overflow : values()) {
+                if (overflow.key.equalsIgnoreCase(value)) {
+                    return overflow;
+                }
+            }
+            throw new IllegalArgumentException("Estrategia de desbordamiento no válida: " + value);
+        }
+    }
+
+    /**
+     * Constructor que configura el bus a partir de 'application.properties'.
      */
     public ClienteNotificacionImpl() {
-        this.clientesNotificationFlux = Flux.<Notificacion<Cliente>>create(emitter -> {
-            this.clientesNotification = emitter;
-        }).share();
+        this(new ConfigProperties());
+    }
+
+    /**
+     * Constructor que configura el bus a partir de las propiedades 'notifications.bufferSize',
+     * 'notifications.overflow', 'notifications.blockTimeout', 'notifications.batch.size' y
+     * 'notifications.batch.window' (los tiempos en milisegundos).
+     *
+     * @param config Configuración de propiedades de la aplicación.
+     */
+    public ClienteNotificacionImpl(ConfigProperties config) {
+        this(config, null);
+    }
+
+    /**
+     * Constructor que configura el bus a partir de las propiedades de la aplicación y registra cada
+     * notificación en el registro de cambios indicado, conservando las últimas 'notifications.log.retention'.
+     *
+     * @param config Configuración de propiedades de la aplicación.
+     * @param changeLog Registro de cambios en el que se guardan las notificaciones, o null para no guardarlas.
+     */
+    public ClienteNotificacionImpl(ConfigProperties config, ClienteChangeLog changeLog) {
+        this(Integer.parseInt(config.getProperty("notifications.bufferSize", String.valueOf(DEFAULT_BUFFER_SIZE))),
+                Overflow.of(config.getProperty("notifications.overflow", Overflow.DROP_OLDEST.key)),
+                Long.parseLong(config.getProperty("notifications.blockTimeout", String.valueOf(DEFAULT_BLOCK_TIMEOUT))),
+                Integer.parseInt(config.getProperty("notifications.batch.size", String.valueOf(DEFAULT_BATCH_SIZE))),
+                Long.parseLong(config.getProperty("notifications.batch.window", String.valueOf(DEFAULT_BATCH_WINDOW))),
+                changeLog,
+                Long.parseLong(config.getProperty("notifications.log.retention", String.valueOf(DEFAULT_LOG_RETENTION))));
+    }
+
+    /**
+     * Constructor que configura el bus con los valores indicados y los lotes por defecto.
+     *
+     * @param bufferSize Número máximo de notificaciones pendientes por suscriptor.
+     * @param overflow Estrategia a aplicar cuando el buffer se llena.
+     * @param blockTimeoutMillis Tiempo máximo de espera de quien notifica con la estrategia {@link Overflow#BLOCK}.
+     */
+    public ClienteNotificacionImpl(int bufferSize, Overflow overflow, long blockTimeoutMillis) {
+        this(bufferSize, overflow, blockTimeoutMillis, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_WINDOW);
+    }
+
+    /**
+     * Constructor que configura el bus con los valores indicados.
+     *
+     * @param bufferSize Número máximo de notificaciones pendientes por suscriptor.
+     * @param overflow Estrategia a aplicar cuando el buffer se llena.
+     * @param blockTimeoutMillis Tiempo máximo de espera de quien notifica con la estrategia {@link Overflow#BLOCK}.
+     * @param batchSize Número máximo de notificaciones que se agrupan en un lote.
+     * @param batchWindowMillis Tiempo máximo en milisegundos que se espera para completar un lote.
+     */
+    public ClienteNotificacionImpl(int bufferSize, Overflow overflow, long blockTimeoutMillis, int batchSize, long batchWindowMillis) {
+        this(bufferSize, overflow, blockTimeoutMillis, batchSize, batchWindowMillis, null);
+    }
+
+    /**
+     * Constructor que configura el bus con los valores indicados y un registro de cambios.
+     *
+     * @param bufferSize Número máximo de notificaciones pendientes por suscriptor.
+     * @param overflow Estrategia a aplicar cuando el buffer se llena.
+     * @param blockTimeoutMillis Tiempo máximo de espera de quien notifica con la estrategia {@link Overflow#BLOCK}.
+     * @param batchSize Número máximo de notificaciones que se agrupan en un lote.
+     * @param batchWindowMillis Tiempo máximo en milisegundos que se espera para completar un lote.
+     * @param changeLog Registro de cambios en el que se guardan las notificaciones, o null para no guardarlas.
+     */
+    public ClienteNotificacionImpl(int bufferSize, Overflow overflow, long blockTimeoutMillis, int batchSize, long batchWindowMillis,
+                                   ClienteChangeLog changeLog) {
+        this(bufferSize, overflow, blockTimeoutMillis, batchSize, batchWindowMillis, changeLog, DEFAULT_LOG_RETENTION);
+    }
+
+    private ClienteNotificacionImpl(int bufferSize, Overflow overflow, long blockTimeoutMillis, int batchSize, long batchWindowMillis,
+                                    ClienteChangeLog changeLog, long logRetention) {
+        if (bufferSize <= 0 || batchSize <= 0 || batchWindowMillis <= 0) {
+            throw new IllegalArgumentException("El tamaño del buffer, el tamaño de lote y la ventana deben ser mayores que 0");
+        }
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.batchSize = batchSize;
+        this.batchWindow = Duration.ofMillis(batchWindowMillis);
+        this.changeLog = changeLog;
+        this.logRetention = logRetention;
+        // Con BLOCK el buffer del sink retiene la presión sobre quien notifica; con el resto, cada
+        // suscriptor tiene su propio buffer y el sink solo reparte a quien tiene demanda
+        this.sink = overflow == Overflow.BLOCK
+                ? Sinks.many().multicast().onBackpressureBuffer(bufferSize, false)
+                : Sinks.many().multicast().directBestEffort();
+        this.clientesNotificationFlux = Flux.defer(this::subscribe);
+        logger.debug("Bus de notificaciones creado con buffer {} y estrategia {}", bufferSize, overflow);
     }
 
     /**
@@ -38,6 +210,22 @@ public class ClienteNotificacionImpl implements ClienteNotificacion {
         return INSTANCE;
     }
 
+    private Flux<Notificacion<Cliente>> subscribe() {
+        Subscriber subscriber = new Subscriber(nextSubscriberId.incrementAndGet(), emitted.get());
+        Flux<Notificacion<Cliente>> source = sink.asFlux();
+        Flux<Notificacion<Cliente>> buffered = switch (overflow) {
+            case DROP_OLDEST -> source.onBackpressureBuffer(bufferSize, dropped -> subscriber.dropped.increment(),
+                    BufferOverflowStrategy.DROP_OLDEST);
+            case LATEST -> source.onBackpressureLatest()
+                    .doOnDiscard(Notificacion.class, dropped -> subscriber.dropped.increment());
+            case BLOCK -> source;
+        };
+        return buffered
+                .doOnNext(notificacion -> subscriber.delivered.increment())
+                .doOnSubscribe(subscription -> subscribers.put(subscriber.id, subscriber))
+                .doFinally(signal -> subscribers.remove(subscriber.id));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -46,15 +234,246 @@ public class ClienteNotificacionImpl implements ClienteNotificacion {
         return clientesNotificationFlux;
     }
 
+    /**
+     * {@inheritDoc}
+     * Primero se leen del registro, por páginas y en el hilo del suscriptor, las notificaciones desde
+     * {@code fromSequence}; después se suscribe a las notificaciones en vivo y, ya suscrito, se vuelve a leer
+     * el registro una vez para recoger las emitidas durante el cambio. Si entre dos notificaciones en vivo
+     * falta alguna secuencia, porque aún no se había emitido o la descartó el buffer del suscriptor, se
+     * recupera del registro antes de continuar, de modo que se entregan todas y en orden.
+     *
+     * @throws IllegalStateException en el flujo si el bus se creó sin registro de cambios, o si alguna
+     * notificación pendiente ya se eliminó del registro al compactarlo.
+     */
+    @Override
+    public Flux<Notificacion<Cliente>> getNotificationAsFlux(long fromSequence) {
+        if (changeLog == null) {
+            return Flux.error(new IllegalStateException("El registro de cambios de notificaciones no está habilitado"));
+        }
+        return Flux.defer(() -> {
+            // Las secuencias empiezan en 1
+            AtomicLong next = new AtomicLong(Math.max(fromSequence, 1));
+            AtomicLong replayed = new AtomicLong(next.get());
+            Flux<Notificacion<Cliente>> replay = readLog(replayed.get(), Long.MAX_VALUE)
+                    .doOnNext(notificacion -> replayed.set(notificacion.getSecuencia() + 1));
+            // merge se suscribe primero al vivo y después relee el registro desde donde acabó la lectura inicial
+            Flux<Notificacion<Cliente>> live = Flux.merge(clientesNotificationFlux,
+                    Flux.defer(() -> readLog(replayed.get(), Long.MAX_VALUE)));
+            return Flux.concat(replay, live)
+                    .concatMap(notificacion -> {
+                        Long secuencia = notificacion.getSecuencia();
+                        if (secuencia == null) {
+                            return Flux.just(notificacion);
+                        }
+                        long expected = next.get();
+                        if (secuencia < expected) {
+                            return Flux.empty();
+                        }
+                        next.set(secuencia + 1);
+                        if (secuencia == expected) {
+                            return Flux.just(notificacion);
+                        }
+                        return Flux.concat(readLog(expected, secuencia - 1), Flux.just(notificacion));
+                    });
+        });
+    }
+
+    /**
+     * Lee del registro, por páginas, las notificaciones con secuencia entre {@code from} y {@code to}, ambas incluidas.
+     * Falla con {@link IllegalStateException} si falta alguna secuencia del tramo porque se compactó; con
+     * {@code to} igual a {@link Long#MAX_VALUE} se lee hasta el final sin exigir ninguna.
+     */
+    private Flux<Notificacion<Cliente>> readLog(long from, long to) {
+        return Flux.defer(() -> {
+            AtomicLong expected = new AtomicLong(from);
+            return Mono.fromCallable(() -> changeLog.getFrom(from, LOG_PAGE_SIZE))
+                    .expand(page -> page.size() < LOG_PAGE_SIZE || page.getLast().getSecuencia() >= to
+                            ? Mono.empty()
+                            : Mono.fromCallable(() -> changeLog.getFrom(page.getLast().getSecuencia() + 1, LOG_PAGE_SIZE)))
+                    .flatMapIterable(page -> page)
+                    .takeWhile(notificacion -> notificacion.getSecuencia() <= to)
+                    .<Notificacion<Cliente>>handle((notificacion, sink) -> {
+                        if (notificacion.getSecuencia() != expected.get()) {
+                            sink.error(compacted(expected.get()));
+                            return;
+                        }
+                        expected.incrementAndGet();
+                        sink.next(notificacion);
+                    })
+                    .concatWith(Mono.defer(() -> to != Long.MAX_VALUE && expected.get() <= to
+                            ? Mono.error(compacted(expected.get()))
+                            : Mono.empty()));
+        });
+    }
+
+    private static IllegalStateException compacted(long secuencia) {
+        return new IllegalStateException("La notificación con secuencia " + secuencia
+                + " ya no está en el registro de cambios; se ha compactado");
+    }
+
+    /**
+     * {@inheritDoc}
+     * Cada lote se cierra al reunir 'notifications.batch.size' notificaciones o al pasar
+     * 'notifications.batch.window' milisegundos desde la primera, y solo se pide el siguiente lote
+     * cuando el suscriptor tiene demanda.
+     */
+    @Override
+    public Flux<List<Notificacion<Cliente>>> getNotificationBatchesAsFlux() {
+        return clientesNotificationFlux
+                .bufferTimeout(batchSize, batchWindow, true)
+                .map(ClienteNotificacionImpl::coalesce)
+                .filter(lote -> !lote.isEmpty());
+    }
+
+    /**
+     * Combina las notificaciones de un lote para que cada cliente aparezca una sola vez con su último estado.
+     * Un alta seguida de cambios se entrega como alta con los datos finales, un alta seguida de una baja
+     * desaparece del lote y una baja seguida de un alta se entrega como modificación.
+     *
+     * @param lote las notificaciones en el orden en que se emitieron.
+     * @return las notificaciones combinadas, en el orden de la primera notificación de cada cliente.
+     */
+    static List<Notificacion<Cliente>> coalesce(List<Notificacion<Cliente>> lote) {
+        Map<Object, Notificacion<Cliente>> combinadas = new LinkedHashMap<>();
+        for (Notificacion<Cliente> actual : lote) {
+            Long id = actual.getContenido() != null ? actual.getContenido().getId() : null;
+            // Las notificaciones sin identificador no se pueden combinar
+            Object key = id != null ? id : new Object();
+            Notificacion<Cliente> anterior = combinadas.get(key);
+            if (anterior == null) {
+                combinadas.put(key, actual);
+            } else if (anterior.getTipo() == Notificacion.Tipo.NEW && actual.getTipo() == Notificacion.Tipo.DELETED) {
+                combinadas.remove(key);
+            } else if (anterior.getTipo() == Notificacion.Tipo.NEW) {
+                combinadas.put(key, withTipo(actual, Notificacion.Tipo.NEW));
+            } else if (anterior.getTipo() == Notificacion.Tipo.DELETED && actual.getTipo() == Notificacion.Tipo.NEW) {
+                combinadas.put(key, withTipo(actual, Notificacion.Tipo.UPDATED));
+            } else {
+                combinadas.put(key, actual);
+            }
+        }
+        return new ArrayList<>(combinadas.values());
+    }
+
+    private static Notificacion<Cliente> withTipo(Notificacion<Cliente> notificacion, Notificacion.Tipo tipo) {
+        Notificacion<Cliente> combinada = new Notificacion<>(tipo, notificacion.getContenido());
+        combinada.setSecuencia(notificacion.getSecuencia());
+        return combinada;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void notify(Notificacion<Cliente> notificacion) {
-        if (this.clientesNotification != null) {
-            this.clientesNotification.next(notificacion);
-        } else {
-            throw new IllegalStateException("FluxSink not initialized");
+        // Se registra fuera del cerrojo para no serializar la escritura en el registro con la emisión
+        if (changeLog != null) {
+            long secuencia = changeLog.append(notificacion);
+            if (secuencia > 0 && secuencia % COMPACT_EVERY == 0) {
+                compactLog();
+            }
+        }
+        emitLock.lock();
+        try {
+            emitted.incrementAndGet();
+            // El sink de BLOCK guardaría la notificación hasta que llegue un suscriptor; sin ninguno se descarta
+            if (overflow == Overflow.BLOCK && sink.currentSubscriberCount() == 0) {
+                undelivered.increment();
+                logger.debug("Notificación {} no entregada: no hay suscriptores", notificacion.getTipo());
+                return;
+            }
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (true) {
+                Sinks.EmitResult result = sink.tryEmitNext(notificacion);
+                if (result.isSuccess()) {
+                    return;
+                }
+                if (result == Sinks.EmitResult.FAIL_OVERFLOW && sink.currentSubscriberCount() > 0
+                        && System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    continue;
+                }
+                undelivered.increment();
+                logger.debug("Notificación {} no entregada: {}", notificacion.getTipo(), result);
+                return;
+            }
+        } finally {
+            emitLock.unlock();
+        }
+    }
+
+    /**
+     * Compacta el registro de cambios en segundo plano, sin lanzar otra compactación mientras dure la anterior.
+     */
+    private void compactLog() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                changeLog.compact(logRetention);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Devuelve el número de notificaciones que no se entregaron a ningún suscriptor, bien porque no
+     * había suscriptores o porque se agotó la espera de la estrategia {@link Overflow#BLOCK}.
+     *
+     * @return las notificaciones no entregadas.
+     */
+    public long getUndeliveredCount() {
+        return undelivered.sum();
+    }
+
+    /**
+     * Obtiene las métricas de cada suscriptor activo.
+     *
+     * @return Las métricas de los suscriptores, una por suscripción.
+     */
+    public List<Stats> getSubscriberStats() {
+        long total = emitted.get();
+        List<Stats> stats = new ArrayList<>(subscribers.size());
+        for (Subscriber subscriber : subscribers.values()) {
+            long delivered = subscriber.delivered.sum();
+            long dropped = subscriber.dropped.sum();
+            stats.add(Stats.builder()
+                    .subscriberId(subscriber.id)
+                    .delivered(delivered)
+                    .dropped(dropped)
+                    .lag(Math.max(0, total - subscriber.emittedAtSubscribe - delivered - dropped))
+                    .build());
+        }
+        return stats;
+    }
+
+    /**
+     * Contadores de una suscripción al flujo de notificaciones.
+     */
+    private static final class Subscriber {
+        private final long id;
+        private final long emittedAtSubscribe;
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        private Subscriber(long id, long emittedAtSubscribe) {
+            this.id = id;
+            this.emittedAtSubscribe = emittedAtSubscribe;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Métricas de un suscriptor en un instante dado; el retraso son las notificaciones emitidas
+     * desde su suscripción que aún no ha recibido ni se le han descartado.
+     */
+    @Data
+    @Builder
+    public static class Stats {
+        private long subscriberId;
+        private long delivered;
+        private long dropped;
+        private long lag;
+    }
+}
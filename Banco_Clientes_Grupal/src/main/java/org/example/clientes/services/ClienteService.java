@@ -6,6 +6,7 @@ import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Notificacion;
 import reactor.core.publisher.Flux;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,6 +26,23 @@ public interface ClienteService {
      */
     Either<ClienteError, List<Cliente>> getAll();
 
+    /**
+     * Obtiene una página de clientes de la base de datos local mediante paginación por clave.
+     *
+     * @param afterId el identificador del último cliente de la página anterior, o 0 para la primera página
+     * @param limit el número máximo de clientes de la página
+     * @return un {@link Either} que contiene un {@link ClienteError} si ocurre un error, o la lista de {@link Cliente} de la página.
+     */
+    Either<ClienteError, List<Cliente>> getPage(long afterId, int limit);
+
+    /**
+     * Obtiene todos los clientes de la base de datos local como un flujo, leyéndolos bajo demanda
+     * para que el listado no dependa de la memoria disponible.
+     *
+     * @return un {@link Flux} que emite los {@link Cliente} ordenados por identificador.
+     */
+    Flux<Cliente> getAllAsFlux();
+
     /**
      * Obtiene un cliente por su identificador.
      *
@@ -33,6 +51,16 @@ public interface ClienteService {
      */
     Either<ClienteError, Cliente> getById(long id);
 
+    /**
+     * Obtiene varios clientes por su identificador, consultando cada nivel (caché, base de datos local
+     * y servicios remotos) una sola vez para todos los que no se hayan encontrado en el anterior.
+     *
+     * @param ids los identificadores de los clientes
+     * @return un {@link Either} que contiene un {@link ClienteError} si ocurre un error, o la lista de {@link Cliente} encontrados
+     * en el orden de los identificadores; los que no existen se omiten.
+     */
+    Either<ClienteError, List<Cliente>> getByIds(Collection<Long> ids);
+
     /**
      * Crea un nuevo cliente.
      *
@@ -2,22 +2,38 @@ package org.example.clientes.services;
 
 import io.vavr.control.Either;
 import org.example.clientes.cache.CacheClienteImpl;
+import org.example.clientes.cache.LoadingCacheClienteImpl;
 import org.example.clientes.errors.ClienteError;
 import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Notificacion;
+import org.example.clientes.model.ResultadoSincronizacion;
 import org.example.clientes.model.Tarjeta;
 import org.example.clientes.model.Usuario;
 import org.example.clientes.repositories.ClienteRepository;
+import org.example.clientes.repositories.ClienteWriteBehind;
 import org.example.clientes.repositories.TarjetaRemoteRepositoryImpl;
+import org.example.common.LoadingCache;
+import org.example.config.ServiceExecutors;
 import org.example.rest.repository.UserRemoteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -25,6 +41,11 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
  * Implementación del servicio de gestión de clientes.
  * Esta clase proporciona métodos para realizar operaciones CRUD sobre los clientes,
  * utilizando repositorios y cache para obtener, crear, actualizar y eliminar clientes.
+ * Las operaciones bloqueantes se ejecutan en el pool de {@link ServiceExecutors} de su backend
+ * (base de datos local o remota) en lugar del {@code ForkJoinPool.commonPool()}, y las escrituras en la
+ * base de datos local que no necesitan respuesta se delegan en un {@link ClienteWriteBehind}.
+ * Las lecturas locales tienen en cuenta esas escrituras pendientes: las de un cliente concreto responden
+ * con ellas y las de listados las vuelcan antes de consultar la base de datos.
  * También maneja notificaciones relacionadas con los cambios en los clientes.
  *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
@@ -36,6 +57,9 @@ public class ClienteServiceImpl implements ClienteService {
     private final TarjetaRemoteRepositoryImpl tarjetaRepository;
     private final ClienteRepository clienteRepository;
     private final CacheClienteImpl cacheCliente;
+    private final LoadingCache<Long, Cliente> clienteCache;
+    private final ServiceExecutors executors;
+    private final ClienteWriteBehind writeBehind;
     private final Logger logger = LoggerFactory.getLogger(ClienteServiceImpl.class);
 
     /**
@@ -46,13 +70,19 @@ public class ClienteServiceImpl implements ClienteService {
      * @param clienteRepository el repositorio para acceder a los clientes.
      * @param cacheCliente el sistema de cache para los clientes.
      * @param notification el objeto de notificación para gestionar las notificaciones de clientes.
+     * @param executors los ejecutores en los que se realizan las operaciones bloqueantes sobre cada backend;
+     *                  los cierra quien los crea.
+     * @param writeBehind la cola que escribe de forma diferida en la base de datos local.
      */
-    public ClienteServiceImpl(UserRemoteRepository userRepository, TarjetaRemoteRepositoryImpl tarjetaRemoteRepository, ClienteRepository clienteRepository, CacheClienteImpl cacheCliente, ClienteNotificacion notification) {
+    public ClienteServiceImpl(UserRemoteRepository userRepository, TarjetaRemoteRepositoryImpl tarjetaRemoteRepository, ClienteRepository clienteRepository, CacheClienteImpl cacheCliente, ClienteNotificacion notification, ServiceExecutors executors, ClienteWriteBehind writeBehind) {
         this.userRepository = userRepository;
         this.tarjetaRepository = tarjetaRemoteRepository;
         this.clienteRepository = clienteRepository;
         this.cacheCliente = cacheCliente;
+        this.clienteCache = new LoadingCacheClienteImpl(cacheCliente, this::loadCliente);
         this.notification = notification;
+        this.executors = executors;
+        this.writeBehind = writeBehind;
     }
 
     /**
@@ -64,24 +94,21 @@ public class ClienteServiceImpl implements ClienteService {
     public Either<ClienteError, List<Cliente>> getAll() {
         logger.info("Obteniendo clientes...");
         try {
-            List<Cliente> clientes = CompletableFuture.supplyAsync(clienteRepository::getAll).get(10000, MILLISECONDS);
+            List<Cliente> clientes = CompletableFuture.supplyAsync(() -> {
+                flushQueued();
+                return clienteRepository.getAll();
+            }, executors.localDb()).get(10000, MILLISECONDS);
             if (clientes.isEmpty()) {
-                Optional<List<Usuario>> usuarios = CompletableFuture.supplyAsync(userRepository::getAllSync).get(10000, MILLISECONDS);
+                Optional<List<Usuario>> usuarios = userRepository.getAllAsync().get(10000, MILLISECONDS);
                 if (usuarios.isPresent()) {
-                    List<Tarjeta> tarjetas = CompletableFuture.supplyAsync(tarjetaRepository::getAll).get(10000, MILLISECONDS);
+                    List<String> titulares = usuarios.get().stream().map(Usuario::getNombre).distinct().toList();
+                    Map<String, List<Tarjeta>> tarjetas = CompletableFuture.supplyAsync(() -> tarjetaRepository.getByTitulares(titulares), executors.remoteDb()).get(10000, MILLISECONDS);
+                    clientes = new ArrayList<>();
                     for (Usuario usuario : usuarios.get()) {
-                        List<Tarjeta> tarjetasUser = new ArrayList<>();
-                        for (Tarjeta tarjeta : tarjetas) {
-                            if (tarjeta.getNombreTitular().equals(usuario.getNombre())) {
-                                tarjetasUser.add(tarjeta);
-                            }
-                        }
-                        Cliente cliente = new Cliente(usuario.getId(), usuario, tarjetasUser, LocalDateTime.now(), LocalDateTime.now());
-                        clientes.add(cliente);
-
-                        CompletableFuture.runAsync(() -> clienteRepository.create(cliente));
-                        return Either.right(clientes);
+                        List<Tarjeta> tarjetasUser = new ArrayList<>(tarjetas.getOrDefault(usuario.getNombre(), new ArrayList<>()));
+                        clientes.add(new Cliente(usuario.getId(), usuario, tarjetasUser, LocalDateTime.now(), LocalDateTime.now()));
                     }
+                    writeBehind.saveAll(clientes);
                 } else {
                     return Either.left(new ClienteError.ClienteNotFound());
                 }
@@ -92,6 +119,42 @@ public class ClienteServiceImpl implements ClienteService {
         }
     }
 
+    /**
+     * Obtiene una página de clientes de la base de datos local.
+     *
+     * @param afterId el identificador del último cliente de la página anterior, o 0 para la primera página.
+     * @param limit el número máximo de clientes de la página.
+     * @return un {@link Either} que contiene un {@link ClienteError} si ocurre un error, o la lista de {@link Cliente} de la página.
+     */
+    @Override
+    public Either<ClienteError, List<Cliente>> getPage(long afterId, int limit) {
+        logger.info("Obteniendo página de clientes después del id: {}", afterId);
+        try {
+            List<Cliente> clientes = CompletableFuture.supplyAsync(() -> {
+                flushQueued();
+                return clienteRepository.getPage(afterId, limit);
+            }, executors.localDb()).get(10000, MILLISECONDS);
+            return Either.right(clientes);
+        } catch (Exception e) {
+            return Either.left(new ClienteError.ClienteNotFound());
+        }
+    }
+
+    /**
+     * Obtiene todos los clientes de la base de datos local como un flujo.
+     * La lectura se realiza en un hilo del planificador elástico para no bloquear al suscriptor.
+     *
+     * @return un {@link Flux} de {@link Cliente}.
+     */
+    @Override
+    public Flux<Cliente> getAllAsFlux() {
+        logger.info("Obteniendo clientes como flujo...");
+        return Flux.defer(() -> {
+            flushQueued();
+            return clienteRepository.getAllAsFlux();
+        }).subscribeOn(Schedulers.fromExecutorService(executors.localDb()));
+    }
+
     /**
      * Obtiene un cliente por su identificador.
      *
@@ -102,42 +165,197 @@ public class ClienteServiceImpl implements ClienteService {
     public Either<ClienteError, Cliente> getById(long id) {
         logger.info("Obteniendo cliente por id: {}", id);
         try {
-            Cliente cliente = CompletableFuture.supplyAsync(() -> cacheCliente.get(id)).get(10000, MILLISECONDS);
+            // Único plazo de la lectura; solo afecta a esta llamada y la carga compartida se cancela
+            // con su petición HTTP cuando vence el plazo de todas las que la esperan
+            Cliente cliente = clienteCache.getOrLoadAsync(id).orTimeout(10000, MILLISECONDS).join();
             if (cliente == null) {
-                Optional<Cliente> clienteRepo = CompletableFuture.supplyAsync(() -> clienteRepository.getById(id)).get(10000, MILLISECONDS);
-
-                if (clienteRepo.isEmpty()) {
-                    Optional<Usuario> usuarioRemoto = CompletableFuture.supplyAsync(() -> userRepository.getByIdSync(id)).get(10000, MILLISECONDS);
-
-                    if (usuarioRemoto.isEmpty()) {
-                        return Either.left(new ClienteError.ClienteNotFound());
-                    } else {
-                        List<Tarjeta> tarjetasRemotas = CompletableFuture.supplyAsync(tarjetaRepository::getAll).get(10000, MILLISECONDS);
-                        List<Tarjeta> tarjetasUser = new ArrayList<>();
-                        for (Tarjeta tarjeta : tarjetasRemotas) {
-                            if (tarjeta.getNombreTitular().equals(usuarioRemoto.get().getNombre())) {
-                                tarjetasUser.add(tarjeta);
-                            }
-                        }
-                        cliente = new Cliente(usuarioRemoto.get().getId(), usuarioRemoto.get(), tarjetasUser, LocalDateTime.now(), LocalDateTime.now());
-                        Cliente finalCliente = cliente;
-                        CompletableFuture.runAsync(() -> cacheCliente.put(finalCliente.getId(), finalCliente));
-                        CompletableFuture.runAsync(() -> clienteRepository.create(finalCliente));
-                        return Either.right(cliente);
-                    }
+                return Either.left(new ClienteError.ClienteNotFound());
+            }
+            return Either.right(cliente);
+        } catch (Exception e) {
+            return Either.left(new ClienteError.ClienteNotFound());
+        }
+    }
+
+    /**
+     * Obtiene varios clientes por su identificador.
+     * Los que están en la caché se devuelven directamente; los demás se buscan con una única consulta
+     * a la base de datos local y, los que tampoco existen en local, se piden al servicio remoto en paralelo
+     * y sus tarjetas se obtienen con una única consulta por titulares. Los clientes remotos se guardan en
+     * local y todos los cargados se añaden a la caché.
+     * Si falla la base de datos local o los servicios remotos, se devuelven los clientes encontrados en el
+     * resto de orígenes y solo se omiten los que dependían del que ha fallado.
+     *
+     * @param ids los identificadores de los clientes.
+     * @return un {@link Either} que contiene un {@link ClienteError} si ocurre un error, o la lista de {@link Cliente} encontrados.
+     */
+    @Override
+    public Either<ClienteError, List<Cliente>> getByIds(Collection<Long> ids) {
+        logger.info("Obteniendo {} clientes por id", ids.size());
+        Set<Long> pendientes = new LinkedHashSet<>(ids);
+        try {
+            Map<Long, Cliente> encontrados = new HashMap<>(cacheCliente.getAll(pendientes));
+            Map<Long, Cliente> cargados = new HashMap<>();
+
+            // Las escrituras locales pendientes mandan sobre la base de datos: un borrado encolado es un cliente inexistente
+            List<Long> fallosCache = new ArrayList<>();
+            for (Long id : pendientes) {
+                if (encontrados.containsKey(id) || writeBehind.isPendingDelete(id)) {
+                    continue;
+                }
+                Optional<Cliente> encolado = writeBehind.getPendingSave(id);
+                if (encolado.isPresent()) {
+                    encontrados.put(id, encolado.get());
                 } else {
-                    cliente = clienteRepo.get();
-                    Cliente finalClient = cliente;
-                    CompletableFuture.runAsync(() -> cacheCliente.put(finalClient.getId(), finalClient));
-                    return Either.right(cliente);
+                    fallosCache.add(id);
                 }
             }
-            return Either.right(cliente);
+            boolean localDisponible = true;
+            if (!fallosCache.isEmpty()) {
+                try {
+                    List<Cliente> locales = CompletableFuture.supplyAsync(() -> clienteRepository.getByIds(fallosCache), executors.localDb()).get(10000, MILLISECONDS);
+                    for (Cliente cliente : locales) {
+                        cargados.put(cliente.getId(), cliente);
+                    }
+                } catch (Exception e) {
+                    restoreInterrupt(e);
+                    logger.warn("No se pudieron obtener los clientes de la base de datos local", e);
+                    localDisponible = false;
+                }
+            }
+
+            List<Long> fallosLocal = fallosCache.stream().filter(id -> !cargados.containsKey(id)).toList();
+            if (!fallosLocal.isEmpty()) {
+                try {
+                    List<Cliente> remotos = loadClientesRemotos(fallosLocal);
+                    for (Cliente cliente : remotos) {
+                        cargados.put(cliente.getId(), cliente);
+                    }
+                    // Sin la consulta local no se sabe si ya existen en local, así que no se guardan
+                    if (localDisponible) {
+                        writeBehind.saveAll(remotos);
+                    }
+                } catch (Exception e) {
+                    restoreInterrupt(e);
+                    logger.warn("No se pudieron obtener los clientes remotos", e);
+                }
+            }
+
+            cacheCliente.putAll(cargados);
+            encontrados.putAll(cargados);
+            return Either.right(pendientes.stream().map(encontrados::get).filter(Objects::nonNull).toList());
         } catch (Exception e) {
             return Either.left(new ClienteError.ClienteNotFound());
         }
     }
 
+    private static void restoreInterrupt(Exception e) {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtiene de los servicios remotos los clientes indicados. Las peticiones de usuarios se lanzan
+     * a la vez y comparten un único plazo; después se consultan las tarjetas de todos sus titulares juntas.
+     *
+     * @param ids los identificadores de los clientes que no existen en local.
+     * @return la lista de {@link Cliente} encontrados en remoto.
+     */
+    private List<Cliente> loadClientesRemotos(List<Long> ids) throws ExecutionException, InterruptedException, TimeoutException {
+        List<CompletableFuture<Optional<Usuario>>> peticiones = ids.stream().map(userRepository::getByIdAsync).toList();
+        List<Usuario> usuarios = new ArrayList<>();
+        try {
+            CompletableFuture.allOf(peticiones.toArray(CompletableFuture[]::new)).get(10000, MILLISECONDS);
+        } finally {
+            peticiones.forEach(peticion -> peticion.cancel(true));
+        }
+        for (CompletableFuture<Optional<Usuario>> peticion : peticiones) {
+            peticion.join().ifPresent(usuarios::add);
+        }
+        if (usuarios.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> titulares = usuarios.stream().map(Usuario::getNombre).distinct().toList();
+        Map<String, List<Tarjeta>> tarjetas = CompletableFuture.supplyAsync(() -> tarjetaRepository.getByTitulares(titulares), executors.remoteDb()).get(10000, MILLISECONDS);
+        List<Cliente> clientes = new ArrayList<>();
+        for (Usuario usuario : usuarios) {
+            List<Tarjeta> tarjetasUser = new ArrayList<>(tarjetas.getOrDefault(usuario.getNombre(), new ArrayList<>()));
+            clientes.add(new Cliente(usuario.getId(), usuario, tarjetasUser, LocalDateTime.now(), LocalDateTime.now()));
+        }
+        return clientes;
+    }
+
+    /**
+     * Carga un cliente que no está en la caché, primero desde la cola de escritura local, después desde
+     * la base de datos local y, si no existe, desde el usuario remoto y sus tarjetas, guardándolo después en local.
+     * Solo la consulta a la base de datos local se ejecuta en su pool; la petición del usuario se
+     * completa en el cliente HTTP y la consulta de las tarjetas del titular se lanza en el pool de la
+     * base de datos remota en cuanto llega el usuario, sin ningún hilo esperando entre las llamadas.
+     * La carga no tiene plazo propio: si el futuro devuelto se cancela o vence, se cancela la petición
+     * HTTP pendiente y ya no se lanza la consulta de tarjetas. Una consulta de tarjetas ya iniciada
+     * termina igualmente, pero su resultado se descarta.
+     *
+     * @param id el identificador del cliente.
+     * @return un futuro con el {@link Cliente} cargado, o null si no existe.
+     */
+    private CompletableFuture<Cliente> loadCliente(Long id) {
+        // Un borrado encolado aún no aplicado no debe devolver ni volver a cachear el cliente
+        if (writeBehind.isPendingDelete(id)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Optional<Cliente> encolado = writeBehind.getPendingSave(id);
+        if (encolado.isPresent()) {
+            return CompletableFuture.completedFuture(encolado.get());
+        }
+
+        CompletableFuture<Cliente> cliente = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(() -> clienteRepository.getById(id), executors.localDb())
+                .whenComplete((clienteRepo, error) -> {
+                    if (error != null) {
+                        cliente.completeExceptionally(error);
+                    } else if (clienteRepo.isPresent()) {
+                        cliente.complete(clienteRepo.get());
+                    } else if (!cliente.isDone()) {
+                        loadClienteRemoto(id, cliente);
+                    }
+                });
+        return cliente;
+    }
+
+    /**
+     * Carga un cliente de los servicios remotos y, si existe, lo encola para guardarlo en local.
+     *
+     * @param id el identificador del cliente.
+     * @param cliente el futuro que se completa con el {@link Cliente} cargado, o con null si no existe.
+     */
+    private void loadClienteRemoto(Long id, CompletableFuture<Cliente> cliente) {
+        CompletableFuture<Optional<Usuario>> usuarioFuture = userRepository.getByIdAsync(id);
+        cliente.whenComplete((resultado, error) -> {
+            if (error != null) {
+                usuarioFuture.cancel(true);
+            }
+        });
+        usuarioFuture.thenApplyAsync(usuarioRemoto -> {
+            if (usuarioRemoto.isEmpty() || cliente.isDone()) {
+                return null;
+            }
+            List<Tarjeta> tarjetasUser = tarjetaRepository.getByTitular(usuarioRemoto.get().getNombre());
+            return new Cliente(usuarioRemoto.get().getId(), usuarioRemoto.get(), tarjetasUser, LocalDateTime.now(), LocalDateTime.now());
+        }, executors.remoteDb()).whenComplete((remoto, error) -> {
+            if (error != null) {
+                cliente.completeExceptionally(error);
+                return;
+            }
+            // Se encola antes de completar para que quien recibe el cliente ya lo encuentre pendiente
+            if (remoto != null && !cliente.isDone()) {
+                writeBehind.save(remoto);
+            }
+            cliente.complete(remoto);
+        });
+    }
+
     /**
      * Crea un nuevo cliente.
      *
@@ -150,13 +368,13 @@ public class ClienteServiceImpl implements ClienteService {
         Usuario usuario = cliente.getUsuario();
         List<Tarjeta> tarjetas = cliente.getTarjeta();
         try {
-            Optional<Usuario> usuarioRemoto = CompletableFuture.supplyAsync(() -> userRepository.createUserSync(usuario)).get(10000, MILLISECONDS);
+            Optional<Usuario> usuarioRemoto = userRepository.createUserAsync(usuario).get(10000, MILLISECONDS);
             if (usuarioRemoto.isPresent()) {
                 for (Tarjeta tarjeta : tarjetas) {
-                    CompletableFuture.runAsync(() -> tarjetaRepository.create(tarjeta));
+                    CompletableFuture.runAsync(() -> tarjetaRepository.create(tarjeta), executors.remoteDb());
                 }
                 Cliente client = new Cliente(usuarioRemoto.get().getId(), usuarioRemoto.get(), tarjetas, usuarioRemoto.get().getCreatedAt(), usuarioRemoto.get().getUpdatedAt());
-                clienteRepository.create(client);
+                writeBehind.save(client);
                 notification.notify(new Notificacion<>(Notificacion.Tipo.NEW, client));
                 return Either.right(client);
             } else {
@@ -178,27 +396,23 @@ public class ClienteServiceImpl implements ClienteService {
     public Either<ClienteError, Cliente> update(long id, Cliente cliente) {
         logger.info("Actualizando cliente con id: {}", id);
         try {
-            Optional<Usuario> usuarioRemoto = CompletableFuture.supplyAsync(() -> userRepository.getByIdSync(id)).get(10000, MILLISECONDS); //si no existe salta una excepción
+            Optional<Usuario> usuarioRemoto = userRepository.getByIdAsync(id).get(10000, MILLISECONDS); //si no existe salta una excepción
             if (usuarioRemoto.isPresent()) {
-                CompletableFuture.runAsync(() -> userRepository.updateUserSync(id, cliente.getUsuario()));
+                userRepository.updateUserAsync(id, cliente.getUsuario());
+                flushPending(id);
 
-                List<Tarjeta> tarjetas = new ArrayList<>();
+                List<Callable<Tarjeta>> actualizaciones = new ArrayList<>();
                 for (Tarjeta tarjeta : cliente.getTarjeta()) {
-                    CompletableFuture<Tarjeta> tarjetaFuture = CompletableFuture.supplyAsync(() -> tarjetaRepository.update(tarjeta.getId(), tarjeta));
-                    tarjetas.add(tarjetaFuture.get(10000, MILLISECONDS));
+                    actualizaciones.add(() -> tarjetaRepository.update(tarjeta.getId(), tarjeta));
                 }
+                ServiceExecutors.invokeAllOrCancel(executors.remoteDb(), actualizaciones, 10000);
 
-                Cliente clienteUpdated = CompletableFuture.supplyAsync(() -> clienteRepository.update(id, cliente)).get(10000, MILLISECONDS);
+                Cliente clienteUpdated = CompletableFuture.supplyAsync(() -> clienteRepository.update(id, cliente), executors.localDb()).get(10000, MILLISECONDS);
                 if (clienteUpdated == null) {
                     return Either.left(new ClienteError.ClienteNotUpdated());
                 } else {
-                    notification.notify(new Notificacion<>(Notificacion.Tipo.NEW, clienteUpdated));
-                    CompletableFuture.runAsync(() -> {
-                        if (cacheCliente.get(id) != null) {
-                            cacheCliente.remove(id);
-                        }
-                        cacheCliente.put(id, clienteUpdated);
-                    });
+                    notification.notify(new Notificacion<>(Notificacion.Tipo.UPDATED, clienteUpdated));
+                    cacheCliente.put(id, clienteUpdated);
                     return Either.right(clienteUpdated);
                 }
             } else {
@@ -219,21 +433,18 @@ public class ClienteServiceImpl implements ClienteService {
     public Either<ClienteError, Cliente> delete(long id) {
         logger.info("Borrando cliente con id: {}", id);
         try {
-            Optional<Usuario> usuarioRemoto = CompletableFuture.supplyAsync(() -> userRepository.getByIdSync(id)).get(10000, MILLISECONDS);
+            Optional<Usuario> usuarioRemoto = userRepository.getByIdAsync(id).get(10000, MILLISECONDS);
             if (usuarioRemoto.isPresent()) {
-                CompletableFuture.runAsync(() -> userRepository.deleteUserSync(id));
-                Optional<Cliente> clienteLocal = CompletableFuture.supplyAsync(() -> clienteRepository.getById(id)).get(10000, MILLISECONDS);
+                userRepository.deleteUserAsync(id);
+                flushPending(id);
+                Optional<Cliente> clienteLocal = CompletableFuture.supplyAsync(() -> clienteRepository.getById(id), executors.localDb()).get(10000, MILLISECONDS);
                 if (clienteLocal.isPresent()) {
                     for (Tarjeta tarjeta : clienteLocal.get().getTarjeta()) {
-                        CompletableFuture.runAsync(() -> tarjetaRepository.delete(tarjeta.getId()));
+                        CompletableFuture.runAsync(() -> tarjetaRepository.delete(tarjeta.getId()), executors.remoteDb());
                     }
-                    CompletableFuture.runAsync(() -> clienteRepository.delete(id));
+                    writeBehind.delete(id);
                     notification.notify(new Notificacion<>(Notificacion.Tipo.DELETED, clienteLocal.get()));
-                    CompletableFuture.runAsync(() -> {
-                        if (cacheCliente.get(id) != null) {
-                            cacheCliente.remove(id);
-                        }
-                    });
+                    cacheCliente.remove(id);
                 }
                 return Either.right(clienteLocal.get());
             } else {
@@ -244,6 +455,28 @@ public class ClienteServiceImpl implements ClienteService {
         }
     }
 
+    /**
+     * Vuelca la cola de escritura local si tiene pendiente una escritura del cliente, para que
+     * la lectura o escritura síncrona que sigue no se adelante a ella.
+     *
+     * @param id el identificador del cliente.
+     */
+    private void flushPending(long id) {
+        if (writeBehind.isPending(id)) {
+            CompletableFuture.runAsync(writeBehind::flush, executors.localDb()).join();
+        }
+    }
+
+    /**
+     * Vuelca la cola de escritura local antes de un listado, para que incluya las altas y excluya
+     * las bajas aún encoladas. Se llama desde un hilo del pool de la base de datos local.
+     */
+    private void flushQueued() {
+        if (writeBehind.hasPending()) {
+            writeBehind.flush();
+        }
+    }
+
     /**
      * Obtiene las notificaciones de clientes como un flujo.
      *
@@ -254,40 +487,133 @@ public class ClienteServiceImpl implements ClienteService {
     }
 
     /**
-     * Actualiza la base de datos local desde la remota
+     * Obtiene las notificaciones de clientes a partir de un número de secuencia del registro de cambios,
+     * para que un consumidor se ponga al día tras una desconexión.
+     *
+     * @param fromSequence el número de secuencia de la primera notificación a recibir.
+     * @return un {@link Flux} de {@link Notificacion} en orden de secuencia.
+     */
+    public Flux<Notificacion<Cliente>> getNotifications(long fromSequence) {
+        return notification.getNotificationAsFlux(fromSequence);
+    }
+
+    /**
+     * Obtiene las notificaciones de clientes agrupadas en lotes, con una sola notificación por cliente
+     * en cada lote, para los consumidores que procesan muchos cambios seguidos.
+     *
+     * @return un {@link Flux} de listas de {@link Notificacion} de clientes.
      */
-    public void updateLocalBBDD() {
+    public Flux<List<Notificacion<Cliente>>> getNotificationBatches() {
+        return notification.getNotificationBatchesAsFlux();
+    }
+
+    /**
+     * Sincroniza la base de datos local con la remota.
+     * Los usuarios remotos, las tarjetas remotas y los clientes locales se cargan en paralelo; las tarjetas
+     * se agrupan por titular en un mapa y se compara cada usuario remoto con su cliente local para aplicar
+     * solo las altas, modificaciones y bajas necesarias en una única transacción por lotes.
+     * Si no se pueden obtener los usuarios remotos no se modifica la base de datos local.
+     *
+     * @return un {@link Either} que contiene un {@link ClienteError} si ocurre un error, o el {@link ResultadoSincronizacion} con los cambios aplicados.
+     */
+    public Either<ClienteError, ResultadoSincronizacion> updateLocalBBDD() {
+        logger.info("Sincronizando la base de datos local...");
+        long inicio = System.nanoTime();
         try {
-            Optional<List<Usuario>> usuarios = CompletableFuture.supplyAsync(userRepository::getAllSync).get(10000, MILLISECONDS);
-            if (usuarios.isPresent() && !usuarios.get().isEmpty()) {
-                try {
-                    CompletableFuture.runAsync(clienteRepository::deleteAll);
-                } catch (Exception e) {
-                    logger.error("Error al eliminar todos los clientes", e);
+            // La comparación debe ver también las escrituras locales aún encoladas
+            writeBehind.flush();
+            CompletableFuture<Optional<List<Usuario>>> usuariosFuture = userRepository.getAllAsync();
+            CompletableFuture<List<Tarjeta>> tarjetasFuture = CompletableFuture.supplyAsync(tarjetaRepository::getAll, executors.remoteDb());
+            CompletableFuture<List<Cliente>> localesFuture = CompletableFuture.supplyAsync(clienteRepository::getAll, executors.localDb());
+            CompletableFuture.allOf(usuariosFuture, tarjetasFuture, localesFuture).get(10000, MILLISECONDS);
+
+            Optional<List<Usuario>> usuarios = usuariosFuture.join();
+            if (usuarios.isEmpty() || usuarios.get().isEmpty()) {
+                logger.error("Error al actualizar la base de datos local: no hay usuarios");
+                return Either.left(new ClienteError.ClienteNotSynchronized());
+            }
+
+            Map<String, List<Tarjeta>> tarjetasPorTitular = new HashMap<>();
+            for (Tarjeta tarjeta : tarjetasFuture.join()) {
+                tarjetasPorTitular.computeIfAbsent(tarjeta.getNombreTitular(), k -> new ArrayList<>()).add(tarjeta);
+            }
+            Map<Long, Cliente> locales = new HashMap<>();
+            for (Cliente local : localesFuture.join()) {
+                locales.put(local.getId(), local);
+            }
+
+            List<Cliente> nuevos = new ArrayList<>();
+            List<Cliente> modificados = new ArrayList<>();
+            int sinCambios = 0;
+            for (Usuario usuario : usuarios.get()) {
+                List<Tarjeta> tarjetasUser = tarjetasPorTitular.getOrDefault(usuario.getNombre(), new ArrayList<>());
+                Cliente remoto = new Cliente(usuario.getId(), usuario, new ArrayList<>(tarjetasUser), LocalDateTime.now(), LocalDateTime.now());
+                Cliente local = locales.remove(usuario.getId());
+                if (local == null) {
+                    nuevos.add(remoto);
+                } else if (!mismosDatos(local, remoto)) {
+                    modificados.add(remoto);
+                } else {
+                    sinCambios++;
                 }
-                List<Tarjeta> tarjetas = CompletableFuture.supplyAsync(tarjetaRepository::getAll).get(10000, MILLISECONDS);
-                for (Usuario usuario : usuarios.get()) {
-                    List<Tarjeta> tarjetasUser = new ArrayList<>();
-                    for (Tarjeta tarjeta : tarjetas) {
-                        if (tarjeta.getNombreTitular().equals(usuario.getNombre())) {
-                            tarjetasUser.add(tarjeta);
-                        }
-                    }
-                    Cliente cliente = new Cliente(usuario.getId(), usuario, tarjetasUser, LocalDateTime.now(), LocalDateTime.now());
-                    CompletableFuture.runAsync(() -> {
-                        try {
-                            clienteRepository.create(cliente);
-                        } catch (Exception e) {
-                            logger.error("Error al crear cliente: {}", cliente.getId(), e);
-                        }
-                    }).join();
+            }
+            List<Long> borrados = new ArrayList<>(locales.keySet());
+
+            if (!nuevos.isEmpty() || !modificados.isEmpty() || !borrados.isEmpty()) {
+                boolean aplicado = CompletableFuture.supplyAsync(() -> clienteRepository.applyChanges(nuevos, modificados, borrados), executors.localDb()).get(10000, MILLISECONDS);
+                if (!aplicado) {
+                    return Either.left(new ClienteError.ClienteNotSynchronized());
+                }
+                for (Cliente cliente : modificados) {
+                    cacheCliente.remove(cliente.getId());
+                }
+                for (Long id : borrados) {
+                    cacheCliente.remove(id);
                 }
-                logger.info("Base de datos local actualizada correctamente");
-            } else {
-                logger.error("Error al actualizar la base de datos local: no hay usuarios");
             }
+
+            ResultadoSincronizacion resultado = ResultadoSincronizacion.builder()
+                    .creados(nuevos.size())
+                    .actualizados(modificados.size())
+                    .borrados(borrados.size())
+                    .sinCambios(sinCambios)
+                    .duracion(Duration.ofNanos(System.nanoTime() - inicio))
+                    .build();
+            logger.info("Base de datos local actualizada correctamente: {}", resultado);
+            return Either.right(resultado);
         } catch (Exception e) {
             logger.error("Error al actualizar la base de datos local", e);
+            return Either.left(new ClienteError.ClienteNotSynchronized());
+        }
+    }
+
+    /**
+     * Compara los datos de un cliente local con los del remoto, sin tener en cuenta
+     * los ID de las tarjetas ni las fechas de creación y modificación.
+     *
+     * @param local el cliente de la base de datos local.
+     * @param remoto el cliente construido a partir de los datos remotos.
+     * @return true si el usuario y sus tarjetas coinciden, false en caso contrario.
+     */
+    private boolean mismosDatos(Cliente local, Cliente remoto) {
+        Usuario usuarioLocal = local.getUsuario();
+        Usuario usuarioRemoto = remoto.getUsuario();
+        if (!Objects.equals(usuarioLocal.getNombre(), usuarioRemoto.getNombre())
+                || !Objects.equals(usuarioLocal.getUserName(), usuarioRemoto.getUserName())
+                || !Objects.equals(usuarioLocal.getEmail(), usuarioRemoto.getEmail())) {
+            return false;
+        }
+        return clavesTarjetas(local.getTarjeta()).equals(clavesTarjetas(remoto.getTarjeta()));
+    }
+
+    private Map<String, Integer> clavesTarjetas(List<Tarjeta> tarjetas) {
+        Map<String, Integer> claves = new HashMap<>();
+        if (tarjetas != null) {
+            for (Tarjeta tarjeta : tarjetas) {
+                String clave = tarjeta.getNumeroTarjeta() + "|" + tarjeta.getNombreTitular() + "|" + tarjeta.getFechaCaducidad();
+                claves.merge(clave, 1, Integer::sum);
+            }
         }
+        return claves;
     }
 }
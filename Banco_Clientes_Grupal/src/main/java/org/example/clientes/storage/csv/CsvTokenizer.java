@@ -0,0 +1,230 @@
+package org.example.clientes.storage.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Lector de registros CSV según la RFC 4180 que trabaja directamente sobre una ventana de caracteres.
+ * Admite campos entre comillas con separadores, saltos de línea y comillas escapadas ({@code ""}),
+ * y finales de línea LF o CRLF. El buffer de lectura, el de campo y el array de campos se reutilizan
+ * entre registros, de modo que por cada registro solo se crean los String de sus campos.
+ *
+ * <p>Uso típico:</p>
+ * <pre>{@code
+ * try (CsvTokenizer csv = new CsvTokenizer(reader)) {
+ *     while (csv.next()) {
+ *         String id = csv.get(0);
+ *     }
+ * }
+ * }</pre>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+final class CsvTokenizer implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final StringBuilder field = new StringBuilder(64);
+    private String[] fields = new String[8];
+    private int size;
+    private int position;
+    private int limit;
+
+    /**
+     * Constructor de la clase.
+     *
+     * @param reader El lector del que se leen los registros.
+     */
+    CsvTokenizer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor de la clase.
+     *
+     * @param reader El lector del que se leen los registros.
+     * @param bufferSize Tamaño de la ventana de caracteres.
+     */
+    CsvTokenizer(Reader reader, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("El tamaño del buffer debe ser positivo: " + bufferSize);
+        }
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Avanza al siguiente registro.
+     *
+     * @return true si se ha leído un registro, false si se ha llegado al final.
+     * @throws IOException si ocurre un error de lectura.
+     */
+    boolean next() throws IOException {
+        size = 0;
+        if (!fill()) {
+            return false;
+        }
+        while (true) {
+            field.setLength(0);
+            boolean endOfRecord = buffer[position] == QUOTE ? readQuoted() : readUnquoted();
+            add(field.toString());
+            if (endOfRecord) {
+                return true;
+            }
+            if (!fill()) {
+                // Un separador al final del archivo deja un último campo vacío
+                add("");
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Obtiene un campo del registro actual.
+     *
+     * @param index Posición del campo, empezando en 0.
+     * @return El valor del campo sin comillas.
+     * @throws IndexOutOfBoundsException si el registro no tiene ese campo.
+     */
+    String get(int index) {
+        return fields[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Obtiene el número de campos del registro actual.
+     *
+     * @return El número de campos.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Añade un valor a una línea CSV, entre comillas si contiene separadores, comillas o saltos de línea.
+     *
+     * @param line La línea en construcción.
+     * @param value El valor a añadir; null se escribe como "null".
+     * @return La misma línea, para encadenar llamadas.
+     */
+    static StringBuilder appendField(StringBuilder line, Object value) {
+        String text = String.valueOf(value);
+        if (!needsQuotes(text)) {
+            return line.append(text);
+        }
+        line.append(QUOTE);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == QUOTE) {
+                line.append(QUOTE);
+            }
+            line.append(c);
+        }
+        return line.append(QUOTE);
+    }
+
+    /**
+     * Cierra el lector subyacente.
+     *
+     * @throws IOException si ocurre un error al cerrar.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Devuelve el registro actual separado por comas, para los mensajes de error.
+     */
+    @Override
+    public String toString() {
+        return String.join(",", Arrays.asList(fields).subList(0, size));
+    }
+
+    /**
+     * Lee un campo sin comillas hasta el siguiente separador o fin de línea, copiando el tramo del buffer de una vez.
+     *
+     * @return true si el campo cierra el registro.
+     */
+    private boolean readUnquoted() throws IOException {
+        int start = position;
+        while (true) {
+            if (position == limit) {
+                field.append(buffer, start, position - start);
+                if (!fill()) {
+                    return true;
+                }
+                start = position;
+            }
+            char c = buffer[position];
+            if (c == SEPARATOR || c == '\n' || c == '\r') {
+                field.append(buffer, start, position - start);
+                position++;
+                if (c == '\r') {
+                    skipLineFeed();
+                }
+                return c != SEPARATOR;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Lee un campo entre comillas. Lo que siga a la comilla de cierre hasta el separador se añade tal cual.
+     *
+     * @return true si el campo cierra el registro.
+     */
+    private boolean readQuoted() throws IOException {
+        position++;
+        while (fill()) {
+            char c = buffer[position++];
+            if (c != QUOTE) {
+                field.append(c);
+            } else if (fill() && buffer[position] == QUOTE) {
+                field.append(QUOTE);
+                position++;
+            } else {
+                return !fill() || readUnquoted();
+            }
+        }
+        return true;
+    }
+
+    private void skipLineFeed() throws IOException {
+        if (fill() && buffer[position] == '\n') {
+            position++;
+        }
+    }
+
+    private void add(String value) {
+        if (size == fields.length) {
+            fields = Arrays.copyOf(fields, size * 2);
+        }
+        fields[size++] = value;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        position = 0;
+        limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+        return limit > 0;
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
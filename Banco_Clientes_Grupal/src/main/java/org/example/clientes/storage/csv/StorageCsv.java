@@ -1,7 +1,10 @@
 package org.example.clientes.storage.csv;
 
+import io.reactivex.rxjava3.core.Flowable;
 import org.example.common.Storage;
 
+import java.io.File;
+
 /**
  * Implementación de la interfaz Storage para manejar operaciones de almacenamiento
  * en archivos CSV.
@@ -10,4 +13,14 @@ import org.example.common.Storage;
  * @version 1.0-SNAPSHOT
  */
 
-public interface StorageCsv<T> extends Storage<T> { }
+public interface StorageCsv<T> extends Storage<T> {
+
+    /**
+     * Importa los datos de un archivo CSV leyéndolo registro a registro, de modo que solo se lee
+     * del archivo lo que el suscriptor ha solicitado y la memoria usada no depende de su tamaño.
+     *
+     * @param file El archivo CSV desde el cual se importarán los datos.
+     * @return Un Flowable que emite cada elemento en cuanto se lee del archivo.
+     */
+    Flowable<T> importFileAsFlowable(File file);
+}
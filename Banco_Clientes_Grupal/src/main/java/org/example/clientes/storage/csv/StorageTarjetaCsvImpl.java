@@ -1,32 +1,92 @@
 package org.example.clientes.storage.csv;
 
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.example.clientes.errors.TarjetaError;
 import org.example.clientes.model.Tarjeta;
+import org.example.clientes.validators.TarjetaValidator;
+import org.example.config.ConfigProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Implementación de la interfaz StorageCsv para manejar operaciones de almacenamiento
  * de tarjetas en archivos CSV.
  *
+ * <p>Además de la importación secuencial, {@link #importFileParallel(File, boolean)} divide el archivo en
+ * tramos de 'csv.import.chunkSize' bytes alineados a fin de línea y los procesa en paralelo en
+ * 'csv.import.parallelism' hilos (0 para usar todos los núcleos).</p>
+ *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
  * @version 1.0-SNAPSHOT
  */
 public class StorageTarjetaCsvImpl implements StorageCsv<Tarjeta> {
+    private static final String HEADER = "ID,Nombre Titular,Numero Tarjeta,Fecha Caducidad,CreatedAt,UpdatedAt\n";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int LINE_SCAN_SIZE = 8192;
 
     private final Logger logger = LoggerFactory.getLogger(StorageTarjetaCsvImpl.class);
+    private final TarjetaValidator tarjetaValidator = new TarjetaValidator();
+    private final int parallelism;
+    private final int chunkSize;
+
+    /**
+     * Tramo del archivo, de 'start' incluido a 'end' excluido, que empieza y termina en un límite de línea.
+     */
+    private record Chunk(long start, long end) { }
+
+    /**
+     * Constructor que configura la importación en paralelo a partir de 'application.properties'.
+     */
+    public StorageTarjetaCsvImpl() {
+        this(new ConfigProperties());
+    }
+
+    /**
+     * Constructor que configura la importación en paralelo a partir de las propiedades de la aplicación.
+     *
+     * @param config Configuración de propiedades de la aplicación.
+     */
+    public StorageTarjetaCsvImpl(ConfigProperties config) {
+        this(Integer.parseInt(config.getProperty("csv.import.parallelism", "0")),
+                Integer.parseInt(config.getProperty("csv.import.chunkSize", String.valueOf(DEFAULT_CHUNK_SIZE))));
+    }
+
+    /**
+     * Constructor que configura la importación en paralelo con los valores indicados.
+     *
+     * @param parallelism Número de tramos que se procesan a la vez, o 0 para usar todos los núcleos.
+     * @param chunkSize Tamaño aproximado en bytes de cada tramo.
+     */
+    public StorageTarjetaCsvImpl(int parallelism, int chunkSize) {
+        if (parallelism < 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Configuración de importación en paralelo no válida: parallelism="
+                    + parallelism + ", chunkSize=" + chunkSize);
+        }
+        this.parallelism = parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+        this.chunkSize = chunkSize;
+    }
 
     /**
      * Importa datos de un archivo CSV y emite objetos Tarjeta.
@@ -36,15 +96,26 @@ public class StorageTarjetaCsvImpl implements StorageCsv<Tarjeta> {
      */
     @Override
     public Observable<Tarjeta> importFile(File file) {
-        return Observable.<Tarjeta>create(emitter -> {
-            try {
-                List<String> lines = Files.readAllLines(file.toPath());
+        return importFileAsFlowable(file).toObservable();
+    }
 
-                for (int i = 1; i < lines.size(); i++) {
-                    String line = lines.get(i);
-                    Tarjeta tarjeta = parseLine(line.split(","));
+    /**
+     * Importa datos de un archivo CSV leyendo un registro por cada tarjeta solicitada.
+     * El archivo se abre al suscribirse y se cierra al terminar o cancelar la suscripción.
+     * Las tarjetas se emiten tal como están en el archivo, sin pasar por {@link TarjetaValidator}.
+     *
+     * @param file Archivo CSV desde el que se importan las tarjetas.
+     * @return Flowable de Tarjeta, emitiendo cada tarjeta en cuanto se lee del archivo.
+     */
+    @Override
+    public Flowable<Tarjeta> importFileAsFlowable(File file) {
+        return Flowable.<Tarjeta, CsvTokenizer>generate(() -> openReader(file), (csv, emitter) -> {
+            try {
+                while (csv.next()) {
+                    Tarjeta tarjeta = parseRecord(csv);
                     if (tarjeta != null) {
                         emitter.onNext(tarjeta);
+                        return;
                     }
                 }
                 emitter.onComplete();
@@ -52,59 +123,200 @@ public class StorageTarjetaCsvImpl implements StorageCsv<Tarjeta> {
                 logger.error("Error al leer el archivo: {}", file.getName(), e);
                 emitter.onError(new TarjetaError.StorageError("leer", file.getName()));
             }
-        }).subscribeOn(Schedulers.io());
+        }, CsvTokenizer::close).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Importa las tarjetas de un archivo CSV procesando varios tramos del archivo a la vez. Cada tramo se lee
+     * de una vez, se parsea y se valida en un hilo de {@link Schedulers#computation()}, y se descartan las
+     * tarjetas no válidas. Los tramos se cortan en saltos de línea, por lo que los campos entre comillas
+     * no pueden contener saltos de línea.
+     *
+     * <p>A diferencia de {@link #importFile} e {@link #importFileAsFlowable}, que emiten todas las tarjetas del
+     * archivo, aquí se descartan las que no superan {@link TarjetaValidator} (número, caducidad o titular no
+     * válidos), de modo que el mismo archivo puede dar menos tarjetas con esta importación.</p>
+     *
+     * @param file Archivo CSV desde el que se importan las tarjetas.
+     * @param ordered true para emitir las tarjetas en el orden del archivo, false para emitir cada tramo en cuanto
+     *                termina, lo que evita que un tramo lento retenga a los demás.
+     * @return Flowable de Tarjeta con las tarjetas válidas del archivo.
+     */
+    public Flowable<Tarjeta> importFileParallel(File file, boolean ordered) {
+        Flowable<Chunk> chunks = Flowable.defer(() -> Flowable.fromIterable(split(file)));
+        Flowable<List<Tarjeta>> parsed = ordered
+                ? chunks.concatMapEager(chunk -> Flowable.fromCallable(() -> parseChunk(file, chunk))
+                        .subscribeOn(Schedulers.computation()), parallelism, 1)
+                : chunks.parallel(parallelism, 1)
+                        .runOn(Schedulers.computation(), 1)
+                        .map(chunk -> parseChunk(file, chunk))
+                        .sequential(1);
+        return parsed.concatMapIterable(tarjetas -> tarjetas);
+    }
+
+    /**
+     * Divide el archivo, sin la cabecera, en tramos de unos {@code chunkSize} bytes que terminan en fin de línea.
+     * En UTF-8 el byte de salto de línea nunca forma parte de otro carácter, así que el corte es seguro.
+     *
+     * @param file Archivo CSV que se va a dividir.
+     * @return Lista de tramos consecutivos que cubren todos los registros.
+     * @throws TarjetaError.StorageError si no se puede leer el archivo.
+     */
+    private List<Chunk> split(File file) throws TarjetaError.StorageError {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Chunk> chunks = new ArrayList<>();
+            long start = nextLine(channel, 0, size);
+            while (start < size) {
+                long end = size - start <= chunkSize ? size : nextLine(channel, start + chunkSize, size);
+                chunks.add(new Chunk(start, end));
+                start = end;
+            }
+            return chunks;
+        } catch (IOException e) {
+            logger.error("Error al leer el archivo: {}", file.getName(), e);
+            throw new TarjetaError.StorageError("leer", file.getName());
+        }
+    }
+
+    /**
+     * Busca el comienzo de la siguiente línea a partir de una posición.
+     *
+     * @return La posición siguiente al primer salto de línea desde 'from', o 'size' si no hay más.
+     */
+    private static long nextLine(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LINE_SCAN_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Lee un tramo del archivo y devuelve sus tarjetas válidas.
+     *
+     * @param file Archivo CSV del que se lee el tramo.
+     * @param chunk Tramo que se procesa.
+     * @return Lista de tarjetas válidas del tramo, en orden.
+     * @throws TarjetaError.StorageError si no se puede leer el tramo.
+     */
+    private List<Tarjeta> parseChunk(File file, Chunk chunk) throws TarjetaError.StorageError {
+        ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(chunk.end() - chunk.start()));
+        List<Tarjeta> tarjetas = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes, chunk.start() + bytes.position()) > 0) {
+                // Lee hasta completar el tramo
+            }
+            try (CsvTokenizer csv = new CsvTokenizer(new InputStreamReader(
+                    new ByteArrayInputStream(bytes.array(), 0, bytes.position()), StandardCharsets.UTF_8))) {
+                while (csv.next()) {
+                    Tarjeta tarjeta = parseRecord(csv);
+                    if (tarjeta == null) {
+                        continue;
+                    }
+                    if (!tarjetaValidator.validate(tarjeta)) {
+                        logger.error("Tarjeta no válida: {}", tarjeta);
+                        continue;
+                    }
+                    tarjetas.add(tarjeta);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error al leer el archivo: {}", file.getName(), e);
+            throw new TarjetaError.StorageError("leer", file.getName());
+        }
+        return tarjetas;
+    }
+
+    /**
+     * Abre el archivo CSV y descarta el registro de cabecera.
+     *
+     * @param file Archivo CSV que se va a leer.
+     * @return Lector de registros posicionado en el primer registro.
+     * @throws TarjetaError.StorageError si no se puede abrir el archivo.
+     */
+    private CsvTokenizer openReader(File file) throws TarjetaError.StorageError {
+        try {
+            CsvTokenizer csv = new CsvTokenizer(Files.newBufferedReader(file.toPath()));
+            try {
+                csv.next();
+                return csv;
+            } catch (IOException e) {
+                csv.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            logger.error("Error al leer el archivo: {}", file.getName(), e);
+            throw new TarjetaError.StorageError("leer", file.getName());
+        }
     }
 
     /**
      * Exporta una lista de tarjetas a un archivo CSV.
+     * El archivo se abre una sola vez por exportación y las líneas se escriben a través de un buffer
+     * de {@value #WRITE_BUFFER_SIZE} caracteres; la cabecera solo se escribe si el archivo está vacío.
      *
      * @param file Archivo CSV donde se exportarán las tarjetas.
      * @param items Observable de Tarjeta que se exportará al archivo.
      */
     @Override
     public void exportFile(File file, Observable<Tarjeta> items) {
-        items.subscribeOn(Schedulers.io())
-                .blockingSubscribe(tarjeta -> {
-                    try (FileWriter writer = new FileWriter(file, true)) {
-                        if (file.length() == 0) {
-                            writer.write("ID,Nombre Titular,Numero Tarjeta,Fecha Caducidad,CreatedAt,UpdatedAt\n");
+        boolean conCabecera = file.length() == 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true), WRITE_BUFFER_SIZE)) {
+            if (conCabecera) {
+                writer.write(HEADER);
+            }
+            StringBuilder linea = new StringBuilder(128);
+            items.subscribeOn(Schedulers.io())
+                    .blockingSubscribe(tarjeta -> {
+                        linea.setLength(0);
+                        linea.append(tarjeta.getId()).append(',');
+                        CsvTokenizer.appendField(linea, tarjeta.getNombreTitular()).append(',');
+                        CsvTokenizer.appendField(linea, tarjeta.getNumeroTarjeta()).append(',');
+                        linea.append(tarjeta.getFechaCaducidad()).append(',')
+                                .append(tarjeta.getCreatedAt() != null ? tarjeta.getCreatedAt().toString() : "").append(',')
+                                .append(tarjeta.getUpdatedAt() != null ? tarjeta.getUpdatedAt().toString() : "")
+                                .append(System.lineSeparator());
+                        try {
+                            writer.append(linea);
+                        } catch (IOException e) {
+                            logger.error("Error al escribir en el archivo: {}", file.getName(), e);
+                            throw new TarjetaError.StorageError("escribir", file.getName());
                         }
-                        String formattedTarjeta = String.format("%d,%s,%s,%s,%s,%s%n",
-                                tarjeta.getId(),
-                                tarjeta.getNombreTitular(),
-                                tarjeta.getNumeroTarjeta(),
-                                tarjeta.getFechaCaducidad().toString(),
-                                tarjeta.getCreatedAt() != null ? tarjeta.getCreatedAt().toString() : "",
-                                tarjeta.getUpdatedAt() != null ? tarjeta.getUpdatedAt().toString() : "");
-
-                        writer.write(formattedTarjeta);
-                    } catch (IOException e) {
-                        logger.error("Error al escribir en el archivo: {}", file.getName(), e);
-                        throw new TarjetaError.StorageError("escribir", file.getName());
-                    }
-                }, error -> logger.error("Error en exportFile: ", error));
+                    }, error -> logger.error("Error en exportFile: ", error));
+        } catch (IOException e) {
+            logger.error("Error al escribir en el archivo: {}", file.getName(), e);
+        }
     }
 
     /**
-     * Parsea una línea del archivo CSV y crea un objeto Tarjeta.
+     * Parsea un registro del archivo CSV y crea un objeto Tarjeta.
      *
-     * @param parts Array de cadenas que representan los campos de la tarjeta.
+     * @param record Registro actual con los campos de la tarjeta.
      * @return Objeto Tarjeta o null si ocurre un error durante el parseo.
      */
-    private Tarjeta parseLine(String[] parts) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-
+    private Tarjeta parseRecord(CsvTokenizer record) {
         try {
             return Tarjeta.builder()
-                    .id(Long.parseLong(parts[0]))
-                    .nombreTitular(parts[1])
-                    .numeroTarjeta(parts[2])
-                    .fechaCaducidad(LocalDate.parse(parts[3]))
-                    .createdAt(parts.length > 4 && !parts[4].isEmpty() ? LocalDateTime.parse(parts[4], formatter) : null)
-                    .updatedAt(parts.length > 5 && !parts[5].isEmpty() ? LocalDateTime.parse(parts[5], formatter) : null)
+                    .id(Long.parseLong(record.get(0)))
+                    .nombreTitular(record.get(1))
+                    .numeroTarjeta(record.get(2))
+                    .fechaCaducidad(LocalDate.parse(record.get(3)))
+                    .createdAt(record.size() > 4 && !record.get(4).isEmpty() ? LocalDateTime.parse(record.get(4), DATE_TIME_FORMATTER) : null)
+                    .updatedAt(record.size() > 5 && !record.get(5).isEmpty() ? LocalDateTime.parse(record.get(5), DATE_TIME_FORMATTER) : null)
                     .build();
         } catch (NumberFormatException | DateTimeParseException e) {
-            logger.error("Error al parsear la línea: {}", String.join(",", parts), e);
+            logger.error("Error al parsear la línea: {}", record, e);
             return null;
         }
     }
@@ -1,5 +1,6 @@
 package org.example.clientes.storage.csv;
 
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.example.clientes.errors.UsuarioError;
@@ -8,12 +9,12 @@ import org.example.clientes.validators.UsuarioValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Implementación de la interfaz StorageCsv para manejar operaciones de almacenamiento
@@ -23,6 +24,8 @@ import java.util.List;
  * @version 1.0-SNAPSHOT
  */
 public class StorageUsuarioCsvImpl implements StorageCsv<Usuario> {
+    private static final String HEADER = "ID,Nombre,UserName,Email,createdAt,updatedAt\n";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
 
     private final UsuarioValidator usuarioValidator = new UsuarioValidator();
     private final Logger logger = LoggerFactory.getLogger(StorageUsuarioCsvImpl.class);
@@ -35,69 +38,112 @@ public class StorageUsuarioCsvImpl implements StorageCsv<Usuario> {
      */
     @Override
     public Observable<Usuario> importFile(File file) {
-        return Observable.<Usuario>create(emitter -> {
+        return importFileAsFlowable(file).toObservable();
+    }
+
+    /**
+     * Importa datos de un archivo CSV leyendo un registro por cada usuario solicitado.
+     * El archivo se abre al suscribirse y se cierra al terminar o cancelar la suscripción.
+     *
+     * @param file Archivo CSV desde el que se importan los usuarios.
+     * @return Flowable de Usuario, emitiendo cada usuario en cuanto se lee del archivo.
+     */
+    @Override
+    public Flowable<Usuario> importFileAsFlowable(File file) {
+        return Flowable.<Usuario, CsvTokenizer>generate(() -> openReader(file), (csv, emitter) -> {
             try {
-                List<String> lines = Files.readAllLines(file.toPath());
-                for (int i = 1; i < lines.size(); i++) {
-                    String line = lines.get(i);
-                    Usuario usuario = parseLine(line.split(","));
+                while (csv.next()) {
+                    Usuario usuario = parseRecord(csv);
                     if (!usuarioValidator.validarUsuario(usuario)) {
                         logger.error("Usuario no válido: {}", usuario);
                         continue;
                     }
                     emitter.onNext(usuario);
+                    return;
                 }
                 emitter.onComplete();
             } catch (IOException e) {
                 logger.error("Error al leer el archivo: {}", file.getName(), e);
                 emitter.onError(new UsuarioError.StorageError("leer", file.getName()));
             }
-        }).subscribeOn(Schedulers.io());
+        }, CsvTokenizer::close).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Abre el archivo CSV y descarta el registro de cabecera.
+     *
+     * @param file Archivo CSV que se va a leer.
+     * @return Lector de registros posicionado en el primer registro.
+     * @throws UsuarioError.StorageError si no se puede abrir el archivo.
+     */
+    private CsvTokenizer openReader(File file) throws UsuarioError.StorageError {
+        try {
+            CsvTokenizer csv = new CsvTokenizer(Files.newBufferedReader(file.toPath()));
+            try {
+                csv.next();
+                return csv;
+            } catch (IOException e) {
+                csv.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            logger.error("Error al leer el archivo: {}", file.getName(), e);
+            throw new UsuarioError.StorageError("leer", file.getName());
+        }
     }
 
     /**
      * Exporta una lista de usuarios a un archivo CSV.
+     * El archivo se abre una sola vez por exportación y las líneas se escriben a través de un buffer
+     * de {@value #WRITE_BUFFER_SIZE} caracteres; la cabecera solo se escribe si el archivo está vacío.
      *
      * @param file Archivo CSV donde se exportarán los usuarios.
      * @param items Observable de Usuario que se exportará al archivo.
      */
     @Override
     public void exportFile(File file, Observable<Usuario> items) {
-        items.subscribeOn(Schedulers.io())
-                .blockingSubscribe(usuario -> {
-                    try (FileWriter writer = new FileWriter(file, true)) {
-                        if (file.length() == 0) {
-                            writer.write("ID,Nombre,UserName,Email,createdAt,updatedAt\n");
+        boolean conCabecera = file.length() == 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true), WRITE_BUFFER_SIZE)) {
+            if (conCabecera) {
+                writer.write(HEADER);
+            }
+            StringBuilder linea = new StringBuilder(128);
+            items.subscribeOn(Schedulers.io())
+                    .blockingSubscribe(usuario -> {
+                        linea.setLength(0);
+                        linea.append(usuario.getId()).append(',');
+                        CsvTokenizer.appendField(linea, usuario.getNombre()).append(',');
+                        CsvTokenizer.appendField(linea, usuario.getUserName()).append(',');
+                        CsvTokenizer.appendField(linea, usuario.getEmail()).append(',');
+                        linea.append(usuario.getCreatedAt()).append(',')
+                                .append(usuario.getUpdatedAt())
+                                .append(System.lineSeparator());
+                        try {
+                            writer.append(linea);
+                        } catch (IOException e) {
+                            logger.error("Error al escribir en el archivo: {}", file.getName(), e);
+                            throw new UsuarioError.StorageError("escribir", file.getName());
                         }
-                        String formattedUsuario = String.format("%d,%s,%s,%s,%s,%s%n",
-                                usuario.getId(),
-                                usuario.getNombre(),
-                                usuario.getUserName(),
-                                usuario.getEmail(),
-                                usuario.getCreatedAt(),
-                                usuario.getUpdatedAt());
-                        writer.write(formattedUsuario);
-                    } catch (IOException e) {
-                        logger.error("Error al escribir en el archivo: {}", file.getName(), e);
-                        throw new UsuarioError.StorageError("escribir", file.getName());
-                    }
-                }, error -> logger.error("Error en exportFile: ", error));
+                    }, error -> logger.error("Error en exportFile: ", error));
+        } catch (IOException e) {
+            logger.error("Error al escribir en el archivo: {}", file.getName(), e);
+        }
     }
 
     /**
-     * Parsea una línea del archivo CSV y crea un objeto Usuario.
+     * Parsea un registro del archivo CSV y crea un objeto Usuario.
      *
-     * @param parts Array de cadenas que representan los campos del usuario.
+     * @param record Registro actual con los campos del usuario.
      * @return Objeto Usuario creado a partir de los datos proporcionados.
      */
-    private Usuario parseLine(String[] parts) {
+    private Usuario parseRecord(CsvTokenizer record) {
         return Usuario.builder()
-                .id(Long.parseLong(parts[0]))
-                .nombre(parts[1])
-                .userName(parts[2])
-                .email(parts[3])
-                .createdAt(LocalDateTime.parse(parts[4]))
-                .updatedAt(LocalDateTime.parse(parts[5]))
+                .id(Long.parseLong(record.get(0)))
+                .nombre(record.get(1))
+                .userName(record.get(2))
+                .email(record.get(3))
+                .createdAt(LocalDateTime.parse(record.get(4)))
+                .updatedAt(LocalDateTime.parse(record.get(5)))
                 .build();
     }
 }
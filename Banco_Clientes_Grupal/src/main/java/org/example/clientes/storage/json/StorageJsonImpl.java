@@ -1,9 +1,17 @@
 package org.example.clientes.storage.json;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.core.type.TypeReference;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.example.clientes.dto.ClienteDto;
 import org.example.clientes.mappers.ClienteMapper;
 import org.example.clientes.model.Cliente;
@@ -11,13 +19,15 @@ import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.nio.file.Files;
 
 /**
  * Implementación de la interfaz StorageJson para manejar operaciones de
  * importación y exportación de objetos Cliente en formato JSON.
  *
+ * <p>El archivo es un array JSON de clientes que se lee y se escribe elemento a elemento con
+ * {@link JsonParser} y {@link JsonGenerator}, sin cargar nunca el array completo en memoria.</p>
+ *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
  * @version 1.0-SNAPSHOT
  */
@@ -25,17 +35,35 @@ public class StorageJsonImpl implements StorageJson<Cliente> {
 
     private final Logger logger;
     private final ObjectMapper objectMapper;
+    private final ObjectReader clienteReader;
+    private final ObjectWriter clienteWriter;
+    private final boolean prettyPrint;
 
     /**
-     * Constructor que inicializa el objeto ObjectMapper y el Logger.
+     * Constructor que inicializa el objeto ObjectMapper y el Logger, exportando con pretty print.
      *
      * @param objectMapper Mapeador de objetos JSON para convertir entre objetos Cliente y su representación en JSON.
      * @param logger para registrar eventos y errores.
      */
     public StorageJsonImpl(ObjectMapper objectMapper, Logger logger) {
+        this(objectMapper, logger, true);
+    }
+
+    /**
+     * Constructor que inicializa el objeto ObjectMapper y el Logger.
+     *
+     * @param objectMapper Mapeador de objetos JSON para convertir entre objetos Cliente y su representación en JSON.
+     * @param logger para registrar eventos y errores.
+     * @param prettyPrint true para exportar el JSON indentado, false para exportarlo compacto.
+     */
+    public StorageJsonImpl(ObjectMapper objectMapper, Logger logger, boolean prettyPrint) {
         this.objectMapper = objectMapper;
-        // Habilita el pretty print
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.clienteReader = objectMapper.readerFor(ClienteDto.class);
+        // El generador se vacía una sola vez al terminar, no tras cada cliente
+        this.clienteWriter = objectMapper.writerFor(ClienteDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(SerializationFeature.INDENT_OUTPUT);
+        this.prettyPrint = prettyPrint;
         this.logger = logger;
     }
 
@@ -47,51 +75,115 @@ public class StorageJsonImpl implements StorageJson<Cliente> {
      */
     @Override
     public Observable<Cliente> importFile(File file) {
-        return Observable.create(emitter -> {
-            try {
-                logger.info("Iniciando la importación de clientes desde el archivo: {}", file.getName());
-
-                List<ClienteDto> clienteDtos = objectMapper.readValue(file, new TypeReference<>() {
-                });
+        return importFileAsFlowable(file).toObservable();
+    }
 
-                for (ClienteDto dto : clienteDtos) {
-                    Cliente cliente = ClienteMapper.fromDto(dto);
-                    emitter.onNext(cliente);
+    /**
+     * Importa los clientes de un archivo JSON leyendo un elemento del array por cada cliente solicitado.
+     * El archivo se abre al suscribirse y se cierra al terminar o cancelar la suscripción.
+     *
+     * @param file El archivo JSON del que se importarán los clientes.
+     * @return Un Flowable que emite cada cliente en cuanto se lee del archivo.
+     */
+    public Flowable<Cliente> importFileAsFlowable(File file) {
+        return Flowable.<Cliente, JsonParser>generate(() -> openParser(file), (parser, emitter) -> {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    emitter.onComplete();
+                    logger.info("Clientes importados correctamente desde el archivo: {}", file.getName());
+                } else if (token == JsonToken.START_OBJECT) {
+                    ClienteDto dto = clienteReader.readValue(parser);
+                    emitter.onNext(ClienteMapper.fromDto(dto));
+                } else {
+                    throw new JsonParseException(parser, "Se esperaba un cliente y se encontró " + token);
                 }
-                emitter.onComplete();
-                logger.info("Clientes importados correctamente desde el archivo: {}", file.getName());
             } catch (IOException e) {
                 logger.error("Error al importar clientes desde el archivo: {}", file.getName(), e);
                 emitter.onError(e);
             }
-        });
+        }, JsonParser::close).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Abre el archivo JSON y lo posiciona al comienzo del array de clientes.
+     *
+     * @param file El archivo JSON que se va a leer.
+     * @return El parser posicionado tras el inicio del array.
+     * @throws IOException si no se puede abrir el archivo o no contiene un array.
+     */
+    private JsonParser openParser(File file) throws IOException {
+        logger.info("Iniciando la importación de clientes desde el archivo: {}", file.getName());
+        try {
+            JsonParser parser = objectMapper.createParser(file);
+            try {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "Se esperaba un array de clientes");
+                }
+                return parser;
+            } catch (IOException e) {
+                parser.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            logger.error("Error al importar clientes desde el archivo: {}", file.getName(), e);
+            throw e;
+        }
     }
 
     /**
      * Exporta una lista de objetos Cliente a un archivo JSON.
+     * Cada cliente se escribe en cuanto se emite, por lo que la memoria usada no depende del número de clientes.
+     * Si los clientes no se pueden obtener o escribir por completo, se borra el archivo a medio escribir.
      *
      * @param file  El archivo al que se exportarán los clientes.
      * @param items Un Observable que emite los clientes a exportar.
      */
     @Override
     public void exportFile(File file, Observable<Cliente> items) {
-        items.toList().subscribe(
-                clienteList -> {
-                    try {
-                        logger.info("Iniciando la exportación de clientes al archivo: {}", file.getName());
-
-                        List<ClienteDto> clienteDtos = clienteList.stream()
-                                .map(ClienteMapper::toDto)
-                                .collect(Collectors.toList());
+        logger.info("Iniciando la exportación de clientes al archivo: {}", file.getName());
+        JsonGenerator generator;
+        try {
+            generator = objectMapper.createGenerator(file, JsonEncoding.UTF8);
+        } catch (IOException e) {
+            logger.error("Error al exportar clientes al archivo: {}", file.getName(), e);
+            return;
+        }
 
-                        objectMapper.writeValue(file, clienteDtos);
+        boolean completo = false;
+        try (generator) {
+            // Sin esto, al cerrar el generador tras un error se cerraría el array y el archivo parecería completo
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            if (prettyPrint) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartArray();
+            Throwable[] failure = new Throwable[1];
+            items.blockingSubscribe(
+                    cliente -> clienteWriter.writeValue(generator, ClienteMapper.toDto(cliente)),
+                    throwable -> failure[0] = throwable
+            );
+            if (failure[0] instanceof IOException e) {
+                throw e;
+            }
+            if (failure[0] != null) {
+                logger.error("Error durante el procesamiento de la lista de clientes", failure[0]);
+            } else {
+                generator.writeEndArray();
+                completo = true;
+            }
+        } catch (IOException e) {
+            logger.error("Error al exportar clientes al archivo: {}", file.getName(), e);
+        }
 
-                        logger.info("Clientes exportados correctamente al archivo: {}", file.getName());
-                    } catch (IOException e) {
-                        logger.error("Error al exportar clientes al archivo: {}", file.getName(), e);
-                    }
-                },
-                throwable -> logger.error("Error durante el procesamiento de la lista de clientes", throwable)
-        );
+        if (completo) {
+            logger.info("Clientes exportados correctamente al archivo: {}", file.getName());
+            return;
+        }
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            logger.error("No se pudo borrar la exportación incompleta: {}", file.getName(), e);
+        }
     }
 }
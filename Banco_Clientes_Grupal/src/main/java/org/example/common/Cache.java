@@ -1,5 +1,8 @@
 package org.example.common;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Interfaz genérica para una caché que permite almacenar, recuperar y eliminar
  * pares clave-valor.
@@ -28,6 +31,21 @@ public interface Cache<K, V> {
      */
     void put(K key, V value);
 
+    /**
+     * Recupera los valores asociados a varias claves en una sola operación.
+     *
+     * @param keys Las claves cuyos valores se desean obtener
+     * @return Un mapa con los valores encontrados; las claves ausentes no aparecen en él
+     */
+    Map<K, V> getAll(Collection<K> keys);
+
+    /**
+     * Almacena varios pares clave-valor en la caché en una sola operación.
+     *
+     * @param values Los pares clave-valor a almacenar
+     */
+    void putAll(Map<K, V> values);
+
     /**
      * Elimina de la caché el valor asociado a la clave especificada.
      *
@@ -0,0 +1,35 @@
+package org.example.common;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interfaz genérica para una caché que sabe cargar por sí misma los valores que no contiene.
+ * Cuando varias peticiones concurrentes fallan sobre la misma clave, solo una de ellas
+ * ejecuta la carga y el resto espera y comparte su resultado.
+ *
+ * @param <K> El tipo de las claves utilizadas en la caché
+ * @param <V> El tipo de los valores almacenados en la caché
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public interface LoadingCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Recupera el valor asociado a la clave especificada y, si no está en la caché,
+     * lo carga, lo almacena y lo devuelve.
+     *
+     * @param key La clave cuyo valor asociado se desea obtener
+     * @return El valor asociado a la clave, o null si no existe ni en la caché ni en el origen
+     */
+    V getOrLoad(K key);
+
+    /**
+     * Recupera el valor asociado a la clave especificada sin bloquear: si no está en la caché,
+     * inicia su carga y devuelve un futuro que se completa cuando termina.
+     *
+     * @param key La clave cuyo valor asociado se desea obtener
+     * @return Un futuro con el valor asociado a la clave, o null si no existe ni en la caché ni en el origen
+     */
+    CompletableFuture<V> getOrLoadAsync(K key);
+}
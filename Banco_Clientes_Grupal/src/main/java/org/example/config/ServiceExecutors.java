@@ -0,0 +1,400 @@
+package org.example.config;
+
+import lombok.Builder;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase que gestiona los ejecutores de las operaciones bloqueantes del servicio.
+ * Mantiene un pool acotado por cada tipo de E/S (base de datos local, base de datos remota y API REST),
+ * de forma que un backend lento solo agota los hilos de su propio pool y no los del resto,
+ * ni los del {@code ForkJoinPool.commonPool()}.
+ * Cada pool tiene un número fijo de hilos, una cola de tamaño limitado y una política de rechazo
+ * configurables en 'application.properties' con las claves {@code executor.<pool>.threads},
+ * {@code executor.<pool>.queue} y {@code executor.<pool>.rejection} ('abort' o 'caller-runs').
+ *
+ * <p>Con {@code executor.virtualThreads=true} cada tarea se ejecuta en su propio hilo virtual.
+ * En ese modo {@code threads} limita las tareas simultáneas de cada backend mediante un semáforo
+ * y {@code queue} las que pueden esperar un permiso; las esperas solo aparcan el hilo virtual,
+ * por lo que el servicio admite miles de peticiones en curso sin reservar hilos de plataforma.</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public class ServiceExecutors implements AutoCloseable {
+
+    /**
+     * Tipos de pool, uno por backend.
+     */
+    public enum Pool {
+        LOCAL_DB("localDb", "local-db", 8),
+        REMOTE_DB("remoteDb", "remote-db", 10),
+        REST("rest", "rest", 16);
+
+        private final String key;
+        private final String threadName;
+        private final int defaultThreads;
+
+        Pool(String key, String threadName, int defaultThreads) {
+            this.key = key;
+            this.threadName = threadName;
+            this.defaultThreads = defaultThreads;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ServiceExecutors.class);
+    private final Map<Pool, ExecutorService> executors = new EnumMap<>(Pool.class);
+    private final Map<Pool, LongAdder> rejected = new EnumMap<>(Pool.class);
+    private final boolean virtualThreads;
+
+    /**
+     * Constructor que crea los pools con la configuración indicada.
+     *
+     * @param config Configuración de propiedades de los pools.
+     */
+    public ServiceExecutors(ConfigProperties config) {
+        this.virtualThreads = Boolean.parseBoolean(config.getProperty("executor.virtualThreads", "false"));
+        for (Pool pool : Pool.values()) {
+            int threads = Integer.parseInt(config.getProperty("executor." + pool.key + ".threads", String.valueOf(pool.defaultThreads)));
+            int queue = Integer.parseInt(config.getProperty("executor." + pool.key + ".queue", "1000"));
+            String rejection = config.getProperty("executor." + pool.key + ".rejection", "abort");
+
+            LongAdder rejectedCount = new LongAdder();
+            RejectedExecutionHandler handler = rejectionHandler(pool, rejection, rejectedCount);
+            ExecutorService executor;
+            if (virtualThreads) {
+                executor = new VirtualThreadPool(pool.threadName, threads, queue, handler);
+            } else {
+                ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queue), threadFactory(pool.threadName), handler);
+                threadPool.allowCoreThreadTimeOut(true);
+                executor = threadPool;
+            }
+
+            executors.put(pool, executor);
+            rejected.put(pool, rejectedCount);
+        }
+        logger.info("Ejecutores del servicio creados con hilos {}", virtualThreads ? "virtuales" : "de plataforma");
+    }
+
+    /**
+     * Indica si los ejecutores usan hilos virtuales.
+     *
+     * @return true si cada tarea se ejecuta en su propio hilo virtual, false si se usan pools de hilos de plataforma.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Devuelve el ejecutor de las operaciones sobre la base de datos local.
+     *
+     * @return El ejecutor del pool local.
+     */
+    public ExecutorService localDb() {
+        return executors.get(Pool.LOCAL_DB);
+    }
+
+    /**
+     * Devuelve el ejecutor de las operaciones sobre la base de datos remota.
+     *
+     * @return El ejecutor del pool remoto.
+     */
+    public ExecutorService remoteDb() {
+        return executors.get(Pool.REMOTE_DB);
+    }
+
+    /**
+     * Devuelve el ejecutor de las llamadas bloqueantes a la API REST.
+     *
+     * @return El ejecutor del pool REST.
+     */
+    public ExecutorService rest() {
+        return executors.get(Pool.REST);
+    }
+
+    /**
+     * Obtiene las métricas actuales de un pool.
+     *
+     * @param pool El pool del que se quieren las métricas.
+     * @return Las métricas del pool.
+     */
+    public Stats getStats(Pool pool) {
+        ExecutorService executor = executors.get(pool);
+        Stats.StatsBuilder stats = Stats.builder()
+                .pool(pool)
+                .rejectedCount(rejected.get(pool).sum());
+        if (executor instanceof ThreadPoolExecutor threadPool) {
+            stats.poolSize(threadPool.getPoolSize())
+                    .activeCount(threadPool.getActiveCount())
+                    .queueSize(threadPool.getQueue().size())
+                    .completedTaskCount(threadPool.getCompletedTaskCount());
+        } else if (executor instanceof VirtualThreadPool virtualPool) {
+            stats.poolSize(virtualPool.active.get() + virtualPool.waiting.get())
+                    .activeCount(virtualPool.active.get())
+                    .queueSize(virtualPool.waiting.get())
+                    .completedTaskCount(virtualPool.completed.sum());
+        }
+        return stats.build();
+    }
+
+    /**
+     * Ejecuta las tareas en paralelo en el ejecutor indicado y devuelve sus resultados en el mismo orden.
+     * Si una tarea falla o se agota el plazo, se interrumpen las tareas hermanas que sigan en curso y se
+     * propaga el error, de modo que ninguna queda trabajando para un resultado que ya no se va a usar.
+     *
+     * @param executor El ejecutor de las tareas.
+     * @param tasks Las tareas a ejecutar.
+     * @param timeoutMillis El plazo total para todas las tareas, en milisegundos.
+     * @return Los resultados de las tareas, en el mismo orden que las tareas.
+     * @throws ExecutionException Si alguna tarea lanza una excepción.
+     * @throws TimeoutException Si no terminan todas dentro del plazo.
+     * @throws InterruptedException Si se interrumpe el hilo que espera.
+     */
+    public static <T> List<T> invokeAllOrCancel(ExecutorService executor, List<Callable<T>> tasks, long timeoutMillis)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(completion.submit(task));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                Future<T> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException("Las tareas no terminaron en " + timeoutMillis + " ms");
+                }
+                done.get();
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Cierra todos los pools, esperando a que terminen las tareas en curso.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors.values()) {
+            executor.shutdown();
+        }
+        for (Map.Entry<Pool, ExecutorService> entry : executors.entrySet()) {
+            try {
+                if (!entry.getValue().awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.warn("El pool {} no terminó a tiempo, cancelando tareas", entry.getKey());
+                    entry.getValue().shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                entry.getValue().shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private RejectedExecutionHandler rejectionHandler(Pool pool, String policy, LongAdder rejectedCount) {
+        if (!policy.equals("abort") && !policy.equals("caller-runs")) {
+            throw new IllegalArgumentException("Política de rechazo no válida para " + pool + ": " + policy);
+        }
+        return (runnable, executor) -> {
+            rejectedCount.increment();
+            logger.warn("Pool {} saturado, tarea rechazada (política {})", pool, policy);
+            if (policy.equals("abort")) {
+                throw new RejectedExecutionException("Tarea rechazada por el pool " + pool);
+            }
+            runnable.run();
+        };
+    }
+
+    /**
+     * Ejecutor que crea un hilo virtual por tarea y limita con un semáforo cuántas se ejecutan a la vez.
+     * Las tareas que no obtienen permiso esperan aparcadas hasta el límite de la cola; a partir de ahí
+     * se aplica la política de rechazo. {@link #shutdownNow()} devuelve las tareas que seguían esperando
+     * y las que son un {@link Future} se cancelan, para que nadie se quede bloqueado en su {@code get()}.
+     */
+    private static final class VirtualThreadPool extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        private final int queueLimit;
+        private final RejectedExecutionHandler handler;
+        private final Set<Pending> queued = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+
+        private VirtualThreadPool(String name, int threads, int queueLimit, RejectedExecutionHandler handler) {
+            this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+            this.permits = new Semaphore(threads);
+            this.queueLimit = queueLimit;
+            this.handler = handler;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (delegate.isShutdown()) {
+                throw new RejectedExecutionException("El ejecutor está cerrado");
+            }
+            if (permits.tryAcquire()) {
+                try {
+                    delegate.execute(() -> run(command));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+                return;
+            }
+            if (waiting.incrementAndGet() > queueLimit) {
+                waiting.decrementAndGet();
+                handler.rejectedExecution(command, null);
+                return;
+            }
+            // Cada envío tiene su propia entrada aunque se envíe dos veces el mismo Runnable
+            Pending pending = new Pending(command);
+            queued.add(pending);
+            try {
+                delegate.execute(() -> awaitPermitAndRun(pending));
+            } catch (RejectedExecutionException e) {
+                queued.remove(pending);
+                waiting.decrementAndGet();
+                throw e;
+            }
+        }
+
+        private void awaitPermitAndRun(Pending pending) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // Interrumpida mientras esperaba su turno: no se ejecutará nunca
+                waiting.decrementAndGet();
+                queued.remove(pending);
+                cancel(pending.command);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            waiting.decrementAndGet();
+            if (!queued.remove(pending)) {
+                // shutdownNow ya la ha retirado de la cola y devuelto al llamante
+                permits.release();
+                return;
+            }
+            run(pending.command);
+        }
+
+        private void run(Runnable command) {
+            active.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                active.decrementAndGet();
+                completed.increment();
+                permits.release();
+            }
+        }
+
+        private static void cancel(Runnable command) {
+            if (command instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<Runnable> pending = new ArrayList<>();
+            for (Pending waitingTask : queued) {
+                if (queued.remove(waitingTask)) {
+                    cancel(waitingTask.command);
+                    pending.add(waitingTask.command);
+                }
+            }
+            delegate.shutdownNow();
+            return pending;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+
+        /**
+         * Tarea que espera un permiso. Se compara por identidad.
+         */
+        private static final class Pending {
+            private final Runnable command;
+
+            private Pending(Runnable command) {
+                this.command = command;
+            }
+        }
+    }
+
+    /**
+     * Métricas de un pool en un instante dado.
+     */
+    @Data
+    @Builder
+    public static class Stats {
+        private Pool pool;
+        private int poolSize;
+        private int activeCount;
+        private int queueSize;
+        private long completedTaskCount;
+        private long rejectedCount;
+    }
+}
@@ -2,18 +2,31 @@ package org.example.database;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.sql.DriverManager;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.apache.ibatis.jdbc.ScriptRunner;
 import org.example.config.ConfigProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 /**
  * Clase que gestiona las conexiones a la base de datos local.
+ * Abre SQLite en modo WAL y mantiene dos pools de conexiones: uno de lectura, que permite
+ * varias lecturas concurrentes, y uno de escritura con una única conexión, de forma que las
+ * escrituras se serializan sin bloquear a los lectores. Con {@code synchronous=NORMAL} una confirmación
+ * no espera a sincronizar el WAL con el disco: lo confirmado sobrevive a una caída de la aplicación, pero
+ * las últimas transacciones pueden perderse si se cae el sistema operativo o la alimentación.
+ * Al crear los pools se aplican las migraciones pendientes del esquema con {@link MigrationRunner},
+ * sin borrar los datos existentes. El script opcional init.sql, con datos iniciales, solo se
+ * ejecuta cuando la base de datos se crea por primera vez.
  * Implementa la interfaz AutoCloseable para asegurar el cierre de recursos.
  *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
@@ -21,14 +34,26 @@ import java.sql.SQLException;
  */
 public class LocalDataBaseManager implements AutoCloseable {
 
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__create_usuario_tarjeta.sql",
+            "V2__tarjeta_usuario_id.sql",
+            "V3__cliente_change_log.sql",
+            "V4__cliente_outbox.sql"
+    );
     private static LocalDataBaseManager instance = null;
     private final Logger logger = LoggerFactory.getLogger(LocalDataBaseManager.class);
-    private Connection connection = null;
+    private volatile HikariDataSource readDataSource = null;
+    private volatile HikariDataSource writeDataSource = null;
+    private final MigrationRunner migrationRunner = new MigrationRunner("migrations/local", MIGRATIONS);
 
     private String DB_URL;
     private String DB_USER;
     private String DB_PASSWORD;
     private InputStream DB_INIT;
+    private final int DB_TIMEOUT;
+    private final int DB_POOL_SIZE;
+    private final int DB_CACHE_SIZE;
+    private final long DB_MMAP_SIZE;
 
     /**
      * Constructor privado que inicializa los parámetros de conexión.
@@ -40,6 +65,10 @@ public class LocalDataBaseManager implements AutoCloseable {
         this.DB_USER = config.getProperty("database.user", "");
         this.DB_PASSWORD = config.getProperty("database.password", "");
         this.DB_INIT = getClass().getClassLoader().getResourceAsStream("init.sql");
+        this.DB_TIMEOUT = Integer.parseInt(config.getProperty("local.database.timeout", "20000"));
+        this.DB_POOL_SIZE = Integer.parseInt(config.getProperty("local.database.pool.size", "4"));
+        this.DB_CACHE_SIZE = Integer.parseInt(config.getProperty("local.database.cacheSize", "-16000"));
+        this.DB_MMAP_SIZE = Long.parseLong(config.getProperty("local.database.mmapSize", "268435456"));
     }
 
     /**
@@ -48,7 +77,7 @@ public class LocalDataBaseManager implements AutoCloseable {
      * @param config Configuración de propiedades para la conexión.
      * @return La instancia única de LocalDataBaseManager.
      */
-    public static LocalDataBaseManager getInstance(ConfigProperties config) {
+    public static synchronized LocalDataBaseManager getInstance(ConfigProperties config) {
         if (instance == null) {
             instance = new LocalDataBaseManager(config);
         }
@@ -56,39 +85,111 @@ public class LocalDataBaseManager implements AutoCloseable {
     }
 
     /**
-     * Establece una conexión con la base de datos.
+     * Obtiene una conexión de lectura del pool. Al cerrarla se devuelve al pool.
      *
      * @return Un objeto Connection que representa la conexión a la base de datos.
      * @throws SQLException Si ocurre un error al intentar conectar.
      */
     public Connection connect() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-                logger.info("Conexión a la base de datos establecida correctamente.");
+        initialize();
+        try {
+            return readDataSource.getConnection();
+        } catch (SQLException e) {
+            logger.error("Error al conectar a la base de datos local", e);
+            throw new RuntimeException("Error al conectar a la base de datos local", e);
+        }
+    }
+
+    /**
+     * Obtiene la única conexión de escritura. Las escrituras concurrentes esperan a que
+     * la conexión vuelva al pool, hasta el tiempo indicado en 'local.database.timeout'.
+     *
+     * @return Un objeto Connection que representa la conexión de escritura.
+     * @throws SQLException Si ocurre un error al intentar conectar.
+     */
+    public Connection connectForWrite() throws SQLException {
+        initialize();
+        try {
+            return writeDataSource.getConnection();
+        } catch (SQLException e) {
+            logger.error("Error al conectar a la base de datos local", e);
+            throw new RuntimeException("Error al conectar a la base de datos local", e);
+        }
+    }
 
-                if (DB_INIT != null) {
+    /**
+     * Crea los pools de conexiones y actualiza el esquema la primera vez.
+     */
+    private void initialize() {
+        if (writeDataSource != null) {
+            return;
+        }
+        synchronized (this) {
+            if (writeDataSource != null) {
+                return;
+            }
+            HikariDataSource writer = new HikariDataSource(buildPoolConfig("local-db-writer", 1));
+            logger.info("Conexión a la base de datos establecida correctamente.");
+            try (Connection connection = writer.getConnection()) {
+                boolean empty = !tableExists(connection, "Usuario");
+                if (!empty && !migrationRunner.isVersioned(connection)) {
+                    // Base de datos creada antes de schema_version: V1 más las migraciones de user_version
+                    migrationRunner.baseline(connection, legacyVersion(connection) + 1);
+                }
+                migrationRunner.migrate(connection);
+                if (empty && DB_INIT != null) {
                     runInitScript(connection, DB_INIT);
                 }
-            } catch (SQLException e) {
+            } catch (SQLException | RuntimeException e) {
+                writer.close();
                 logger.error("Error al conectar a la base de datos local", e);
                 throw new RuntimeException("Error al conectar a la base de datos local", e);
             }
+            readDataSource = new HikariDataSource(buildPoolConfig("local-db-reader", DB_POOL_SIZE));
+            writeDataSource = writer;
         }
-        return connection;
     }
 
     /**
-     * Desconecta la base de datos cerrando la conexión activa.
+     * Crea la configuración de un pool de conexiones SQLite en modo WAL.
+     *
+     * @param poolName Nombre del pool.
+     * @param poolSize Número máximo de conexiones del pool.
+     * @return La configuración del pool.
      */
-    public void disconnect() {
-        if (connection != null) {
-            try {
-                connection.close();
-                logger.info("Conexión a la base de datos cerrada.");
-            } catch (SQLException e) {
-                logger.error("Error al cerrar la conexión a la base de datos", e);
-            }
+    private HikariConfig buildPoolConfig(String poolName, int poolSize) {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        sqliteConfig.setCacheSize(DB_CACHE_SIZE);
+        sqliteConfig.setBusyTimeout(DB_TIMEOUT);
+        sqliteConfig.setTempStore(SQLiteConfig.TempStore.MEMORY);
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(DB_URL);
+        config.setUsername(DB_USER);
+        config.setPassword(DB_PASSWORD);
+        config.setPoolName(poolName);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(DB_TIMEOUT);
+        config.setDataSourceProperties(sqliteConfig.toProperties());
+        config.setConnectionInitSql("PRAGMA mmap_size = " + DB_MMAP_SIZE);
+        return config;
+    }
+
+    /**
+     * Desconecta la base de datos cerrando los pools de conexiones.
+     */
+    public synchronized void disconnect() {
+        if (readDataSource != null) {
+            readDataSource.close();
+            readDataSource = null;
+        }
+        if (writeDataSource != null) {
+            writeDataSource.close();
+            writeDataSource = null;
+            logger.info("Conexión a la base de datos cerrada.");
         }
     }
 
@@ -102,6 +203,35 @@ public class LocalDataBaseManager implements AutoCloseable {
         disconnect();
     }
 
+    /**
+     * Comprueba si existe una tabla en la base de datos.
+     *
+     * @param connection Conexión a la base de datos.
+     * @param table Nombre de la tabla.
+     * @return true si la tabla existe, false en caso contrario.
+     * @throws SQLException Si ocurre un error al consultar el esquema.
+     */
+    private boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getTables(null, null, table, null)) {
+            return resultSet.next();
+        }
+    }
+
+    /**
+     * Devuelve la versión del esquema anterior al control de versiones con schema_version,
+     * guardada en {@code PRAGMA user_version}.
+     *
+     * @param connection Conexión a la base de datos.
+     * @return La versión registrada, o 0 si no había ninguna.
+     * @throws SQLException Si ocurre un error al leer la versión.
+     */
+    private int legacyVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
     private void runInitScript(Connection connection, InputStream initScript) {
         try {
             ScriptRunner scriptRunner = new ScriptRunner(connection);
@@ -112,6 +242,8 @@ public class LocalDataBaseManager implements AutoCloseable {
         } catch (Exception e) {
             logger.error("Error al ejecutar el script init.sql", e);
             throw new RuntimeException("Error al ejecutar el script init.sql", e);
+        } finally {
+            DB_INIT = null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,242 @@
+package org.example.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Clase que aplica migraciones versionadas del esquema de una base de datos.
+ * Las migraciones son scripts SQL del classpath con nombre {@code V<version>__<descripcion>.sql},
+ * que se aplican en orden de versión. Cada migración aplicada se registra en la tabla
+ * {@code schema_version} junto con la suma de comprobación (SHA-256) de su contenido,
+ * de modo que al arrancar solo se ejecutan las migraciones pendientes y se detecta
+ * cualquier script ya aplicado que haya sido modificado.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
+ * @version 1.0-SNAPSHOT
+ */
+public class MigrationRunner {
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INTEGER PRIMARY KEY, "
+            + "description VARCHAR(255) NOT NULL, "
+            + "checksum VARCHAR(64) NOT NULL, "
+            + "installedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+    private final String location;
+    private final List<Migration> migrations = new ArrayList<>();
+
+    /**
+     * Constructor que carga los scripts de migración del classpath.
+     *
+     * @param location Carpeta del classpath donde se encuentran los scripts.
+     * @param scripts Nombres de los scripts de migración de la carpeta.
+     */
+    public MigrationRunner(String location, List<String> scripts) {
+        this.location = location;
+        for (String script : scripts) {
+            migrations.add(load(script));
+        }
+        migrations.sort((a, b) -> Integer.compare(a.version, b.version));
+    }
+
+    /**
+     * Indica si la base de datos ya tiene la tabla de versiones del esquema.
+     *
+     * @param connection Conexión a la base de datos.
+     * @return true si existe la tabla schema_version, false en caso contrario.
+     * @throws SQLException Si ocurre un error al consultar el esquema.
+     */
+    public boolean isVersioned(Connection connection) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getTables(null, null, "schema_version", null)) {
+            return resultSet.next();
+        }
+    }
+
+    /**
+     * Marca como aplicadas, sin ejecutarlas, las migraciones hasta la versión indicada.
+     * Se usa para incorporar al control de versiones una base de datos que ya tiene ese esquema.
+     *
+     * @param connection Conexión a la base de datos.
+     * @param version Última versión que ya está presente en la base de datos.
+     * @throws SQLException Si ocurre un error al registrar las versiones.
+     */
+    public void baseline(Connection connection, int version) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            createVersionTable(connection);
+            Map<Integer, String> applied = appliedVersions(connection);
+            for (Migration migration : migrations) {
+                if (migration.version <= version && !applied.containsKey(migration.version)) {
+                    insertVersion(connection, migration);
+                }
+            }
+            connection.commit();
+            logger.info("Esquema {} marcado en la versión {}", location, version);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Valida las migraciones ya aplicadas y aplica en orden las pendientes.
+     * Cada migración se ejecuta en su propia transacción junto con su registro en schema_version.
+     *
+     * @param connection Conexión a la base de datos.
+     * @return El número de migraciones aplicadas.
+     * @throws SQLException Si una migración falla o si un script aplicado ha cambiado.
+     */
+    public int migrate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        int count = 0;
+        try {
+            createVersionTable(connection);
+            connection.commit();
+            Map<Integer, String> applied = appliedVersions(connection);
+
+            for (Migration migration : migrations) {
+                String checksum = applied.get(migration.version);
+                if (checksum != null) {
+                    if (!checksum.equals(migration.checksum)) {
+                        throw new SQLException("La migración " + migration.script + " ha cambiado desde que se aplicó");
+                    }
+                    continue;
+                }
+
+                logger.info("Aplicando migración {}/{}", location, migration.script);
+                try {
+                    try (Statement statement = connection.createStatement()) {
+                        for (String sql : migration.statements()) {
+                            statement.execute(sql);
+                        }
+                    }
+                    insertVersion(connection, migration);
+                    connection.commit();
+                    count++;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw new SQLException("Error al aplicar la migración " + migration.script, e);
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        logger.info("Esquema {} actualizado: {} migraciones aplicadas", location, count);
+        return count;
+    }
+
+    private void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+        }
+    }
+
+    private Map<Integer, String> appliedVersions(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_version ORDER BY version")) {
+            while (resultSet.next()) {
+                applied.put(resultSet.getInt("version"), resultSet.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void insertVersion(Connection connection, Migration migration) throws SQLException {
+        String query = "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, migration.version);
+            statement.setString(2, migration.description);
+            statement.setString(3, migration.checksum);
+            statement.executeUpdate();
+        }
+    }
+
+    private Migration load(String script) {
+        Matcher matcher = SCRIPT_NAME.matcher(script);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Nombre de migración no válido: " + script);
+        }
+        String path = location + "/" + script;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(path)) {
+            if (input == null) {
+                throw new IllegalArgumentException("No se encontró la migración: " + path);
+            }
+            String sql = new String(input.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), script, sql, checksum(sql));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo leer la migración: " + path, e);
+        }
+    }
+
+    private static String checksum(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Script de migración cargado del classpath.
+     */
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String sql;
+        private final String checksum;
+
+        private Migration(int version, String description, String script, String sql, String checksum) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.sql = sql;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Divide el script en sentencias separadas por ';', ignorando los comentarios de línea.
+         */
+        private List<String> statements() {
+            StringBuilder builder = new StringBuilder();
+            for (String line : sql.split("\n")) {
+                String trimmed = line.trim();
+                if (!trimmed.startsWith("--")) {
+                    builder.append(line).append('\n');
+                }
+            }
+            List<String> statements = new ArrayList<>();
+            for (String statement : builder.toString().split(";")) {
+                if (!statement.isBlank()) {
+                    statements.add(statement.trim());
+                }
+            }
+            return statements;
+        }
+    }
+}
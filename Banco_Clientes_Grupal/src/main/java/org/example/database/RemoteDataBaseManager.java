@@ -1,24 +1,32 @@
 package org.example.database;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
 
 /**
- * Clase que gestiona las conexiones a una base de datos remota utilizando JDBC.
+ * Clase que gestiona las conexiones a una base de datos remota utilizando un pool de conexiones Hikari.
  * Implementa el patrón Singleton para asegurar que solo exista una instancia de la clase.
- * También implementa AutoCloseable para facilitar el cierre de la conexión.
+ * También implementa AutoCloseable para facilitar el cierre del pool.
+ * Las conexiones entregadas por {@link #getConnection()} deben cerrarse tras su uso para devolverlas al pool.
+ * Al crear el pool se aplican las migraciones pendientes del esquema con {@link MigrationRunner}.
  *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
  * @version 1.0-SNAPSHOT
  */
 public class RemoteDataBaseManager implements AutoCloseable {
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__create_tarjetas.sql",
+            "V2__tarjetas_nombre_titular_index.sql"
+    );
     private static RemoteDataBaseManager instance = null;
     private final Logger logger = LoggerFactory.getLogger(RemoteDataBaseManager.class);
 
@@ -26,7 +34,9 @@ public class RemoteDataBaseManager implements AutoCloseable {
     private String DB_URL;
     private String DB_USER;
     private String DB_PASSWORD;
-    private Connection connection = null;
+    private boolean DB_MIGRATE = true;
+    private final Properties poolProperties = new Properties();
+    private volatile HikariDataSource dataSource = null;
 
     /**
      * Constructor privado que carga las propiedades necesarias para la conexión a la base de datos.
@@ -51,6 +61,13 @@ public class RemoteDataBaseManager implements AutoCloseable {
             DB_URL = prop.getProperty("database.url");
             DB_USER = prop.getProperty("database.user");
             DB_PASSWORD = prop.getProperty("database.password");
+            DB_MIGRATE = Boolean.parseBoolean(prop.getProperty("database.migrate", "true"));
+
+            for (String key : prop.stringPropertyNames()) {
+                if (key.startsWith("database.pool.")) {
+                    poolProperties.setProperty(key, prop.getProperty(key));
+                }
+            }
 
         } catch (IOException ex) {
             logger.error("No se ha podido cargar el fichero de properties", ex);
@@ -70,17 +87,77 @@ public class RemoteDataBaseManager implements AutoCloseable {
     }
 
     /**
-     * Obtiene una conexión a la base de datos. Si la conexión no existe o está cerrada, se crea una nueva.
+     * Crea la configuración del pool a partir de las propiedades 'database.pool.*'.
+     *
+     * @return La configuración de Hikari para la base de datos remota.
+     */
+    private HikariConfig buildPoolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(DB_URL);
+        config.setUsername(DB_USER);
+        config.setPassword(DB_PASSWORD);
+        config.setPoolName("remote-db-pool");
+        config.setMaximumPoolSize(Integer.parseInt(poolProperties.getProperty("database.pool.size", "10")));
+        config.setMinimumIdle(Integer.parseInt(poolProperties.getProperty("database.pool.minIdle", "2")));
+        config.setConnectionTimeout(Long.parseLong(poolProperties.getProperty("database.pool.connectionTimeout", "10000")));
+        config.setIdleTimeout(Long.parseLong(poolProperties.getProperty("database.pool.idleTimeout", "600000")));
+        config.setMaxLifetime(Long.parseLong(poolProperties.getProperty("database.pool.maxLifetime", "1800000")));
+        config.setLeakDetectionThreshold(Long.parseLong(poolProperties.getProperty("database.pool.leakDetectionThreshold", "0")));
+
+        // Caché de sentencias preparadas del driver de PostgreSQL
+        config.addDataSourceProperty("prepareThreshold", poolProperties.getProperty("database.pool.prepareThreshold", "1"));
+        config.addDataSourceProperty("preparedStatementCacheQueries", poolProperties.getProperty("database.pool.statementCacheSize", "256"));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", poolProperties.getProperty("database.pool.statementCacheSizeMiB", "5"));
+        return config;
+    }
+
+    /**
+     * Devuelve el pool de conexiones, creándolo la primera vez que se necesita.
+     *
+     * @return El pool de conexiones a la base de datos remota.
+     */
+    private HikariDataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (this) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = new HikariDataSource(buildPoolConfig());
+                    logger.info("Pool de conexiones a la base de datos remota creado con {} conexiones máximas", ds.getMaximumPoolSize());
+                    if (DB_MIGRATE) {
+                        migrate(ds);
+                    }
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    /**
+     * Aplica las migraciones pendientes del esquema remoto. Si fallan, se cierra el pool.
+     *
+     * @param ds El pool de conexiones recién creado.
+     */
+    private void migrate(HikariDataSource ds) {
+        try (Connection connection = ds.getConnection()) {
+            new MigrationRunner("migrations/remote", MIGRATIONS).migrate(connection);
+        } catch (SQLException | RuntimeException e) {
+            ds.close();
+            logger.error("No se pudo actualizar el esquema de la base de datos", e);
+            throw new RuntimeException("No se pudo actualizar el esquema de la base de datos", e);
+        }
+    }
+
+    /**
+     * Obtiene una conexión del pool a la base de datos. Al cerrarla se devuelve al pool.
      *
      * @return Un objeto Connection que representa la conexión a la base de datos.
      * @throws SQLException Si ocurre un error al intentar conectar.
      */
     public Connection getConnection() throws SQLException {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            }
-            return connection;
+            return getDataSource().getConnection();
         } catch (SQLException e) {
             logger.error("No se pudo conectar con la base de datos", e);
             throw new RuntimeException("No se pudo conectar con la base de datos", e);
@@ -88,25 +165,20 @@ public class RemoteDataBaseManager implements AutoCloseable {
     }
 
     /**
-     * Desconecta la conexión de la base de datos cerrando la conexión activa.
+     * Desconecta de la base de datos cerrando el pool y todas sus conexiones.
      */
-    public void disconnect() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-                logger.info("Desconectando de la base de datos...");
-            } catch (SQLException e) {
-                logger.error("No se pudo desconectar de la base de datos", e);
-                throw new RuntimeException("No se pudo desconectar de la base de datos", e);
-            }
+    public synchronized void disconnect() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+            logger.info("Desconectando de la base de datos...");
         }
     }
 
     /**
-     * Cierra la conexión a la base de datos llamando a `disconnect()`.
+     * Cierra el pool de conexiones a la base de datos llamando a `disconnect()`.
      *
-     * @throws Exception Si ocurre un error al cerrar la conexión.
+     * @throws Exception Si ocurre un error al cerrar el pool.
      */
     @Override
     public void close() throws Exception {
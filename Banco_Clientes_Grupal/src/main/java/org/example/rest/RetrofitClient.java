@@ -1,8 +1,13 @@
 package org.example.rest;
 
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
 /**
  * Clase que gestiona la creación de un cliente Retrofit para realizar peticiones HTTP.
  *
@@ -31,4 +36,30 @@ public class RetrofitClient {
         }
         return retrofit;
     }
-}
+
+    /**
+     * Obtiene una instancia de Retrofit para la URL base especificada cuyas llamadas asíncronas
+     * se ejecutan en el ejecutor indicado, en lugar de en el pool sin límite de OkHttp.
+     * Si no existe una instancia previa, se crea un nuevo cliente Retrofit.
+     *
+     * @param baseUrl la URL base para las peticiones HTTP
+     * @param executor el ejecutor de las llamadas HTTP, en cuyos hilos se ejecutan también los callbacks
+     * @return una instancia de Retrofit configurada con la URL base, el ejecutor y el convertidor Jackson
+     */
+    public static Retrofit getClient(String baseUrl, ExecutorService executor) {
+        if (retrofit == null) {
+            Dispatcher dispatcher = new Dispatcher(executor);
+            if (executor instanceof ThreadPoolExecutor pool) {
+                // Las peticiones que superan los hilos esperan en la cola de OkHttp en vez de ser rechazadas
+                dispatcher.setMaxRequests(pool.getMaximumPoolSize());
+                dispatcher.setMaxRequestsPerHost(pool.getMaximumPoolSize());
+            }
+            retrofit = new Retrofit.Builder()
+                    .baseUrl(baseUrl)
+                    .client(new OkHttpClient.Builder().dispatcher(dispatcher).build())
+                    .addConverterFactory(JacksonConverterFactory.create())
+                    .build();
+        }
+        return retrofit;
+    }
+}
\ No newline at end of file
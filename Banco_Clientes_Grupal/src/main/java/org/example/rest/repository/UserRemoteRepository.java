@@ -3,22 +3,34 @@ package org.example.rest.repository;
 import org.example.clientes.mappers.UsuarioMapper;
 import org.example.clientes.model.Usuario;
 import org.example.rest.UserApiRest;
+import org.example.rest.responses.createUpdateDelete.UserCreate;
+import org.example.rest.responses.createUpdateDelete.UserDelete;
+import org.example.rest.responses.getAll.UserGetAll;
+import org.example.rest.responses.getById.UserGetById;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Clase UserRemoteRepository
  *
- * Esta clase gestiona la interacción con la API remota de usuarios a través de llamadas sincrónicas.
- * Utiliza la clase UserApiRest para realizar las peticiones HTTP a la API y convierte los resultados
- * en objetos Usuario mediante el UsuarioMapper.
+ * Esta clase gestiona la interacción con la API remota de usuarios a través de llamadas sincrónicas
+ * y asíncronas. Utiliza la clase UserApiRest para realizar las peticiones HTTP a la API y convierte los
+ * resultados en objetos Usuario mediante el UsuarioMapper.
  *
- * Cada operación realiza una llamada sincrónica a la API y maneja los errores correspondientes,
- * registrando las operaciones a través de SLF4J.
+ * Cada operación tiene una versión sincrónica, que bloquea el hilo hasta recibir la respuesta, y una
+ * asíncrona, que encola la petición con {@link Call#enqueue} y devuelve un {@link CompletableFuture}
+ * que se completa en el hilo de OkHttp al llegar la respuesta, sin ocupar ningún hilo mientras espera.
+ * Ambas versiones manejan los errores de la misma forma, registrando las operaciones a través de SLF4J.
  *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo
  * @version 1.0-SNAPSHOT
@@ -44,28 +56,24 @@ public class UserRemoteRepository {
      */
     public Optional<List<Usuario>> getAllSync(){
         logger.debug("UserRemoteRepository: Devolviendo todos los usuarios de la API");
-        var call = userApiRest.getAllSync();
         try {
-            var response = call.execute();
-            if (!response.isSuccessful()) {
-                logger.error("Error recuperando todos los usuarios: " + response.code());
-                return Optional.empty();
-            }
-            var body = response.body();
-            if (body != null) {
-                return Optional.of(body.stream()
-                        .map(UsuarioMapper::toUserFromCreate)
-                        .toList());
-            } else {
-                logger.error("Response body es null");
-                return Optional.empty();
-            }
+            return toUsuarios(userApiRest.getAllSync().execute());
         } catch (Exception e) {
             logger.error("Error recuperando todos los usuarios de la API", e.getMessage());
             return Optional.empty();
         }
     }
 
+    /**
+     * Recupera todos los usuarios de la API de forma asíncrona.
+     *
+     * @return Un {@link CompletableFuture} con la lista opcional de usuarios, o Optional.empty() si falla.
+     */
+    public CompletableFuture<Optional<List<Usuario>>> getAllAsync() {
+        logger.debug("UserRemoteRepository: Devolviendo todos los usuarios de la API de forma asíncrona");
+        return enqueue(userApiRest.getAllSync(), this::toUsuarios, "Error recuperando todos los usuarios de la API");
+    }
+
     /**
      * Recupera un usuario por su ID de forma sincrónica.
      *
@@ -74,24 +82,25 @@ public class UserRemoteRepository {
      */
     public Optional<Usuario> getByIdSync(long id) {
         logger.debug("UserRemoteRepository: Recuperando el usuario con id " + id);
-        var call = userApiRest.getByIdSync(id);
         try {
-            var response = call.execute();
-            if (!response.isSuccessful()) {
-                if (response.code() == 404) {
-                    logger.debug("UserRemoteRepository: Error, usuario no encontrado con id " + id);
-                    return Optional.empty();
-                } else {
-                    throw new Exception("Error: " + response.code());
-                }
-            }
-            return Optional.of(UsuarioMapper.toUserFromCreate(response.body()));
+            return toUsuarioById(id, userApiRest.getByIdSync(id).execute());
         } catch (Exception e) {
             logger.error("Error recuperando el usuario con id: " + id, e.getMessage());
             return Optional.empty();
         }
     }
 
+    /**
+     * Recupera un usuario por su ID de forma asíncrona.
+     *
+     * @param id El ID del usuario a recuperar.
+     * @return Un {@link CompletableFuture} con el usuario si existe, o Optional.empty() si no se encuentra o ocurre un error.
+     */
+    public CompletableFuture<Optional<Usuario>> getByIdAsync(long id) {
+        logger.debug("UserRemoteRepository: Recuperando de forma asíncrona el usuario con id " + id);
+        return enqueue(userApiRest.getByIdSync(id), response -> toUsuarioById(id, response), "Error recuperando el usuario con id: " + id);
+    }
+
     /**
      * Crea un nuevo usuario a través de la API de forma sincrónica.
      *
@@ -101,26 +110,25 @@ public class UserRemoteRepository {
 
     public Optional<Usuario> createUserSync(Usuario user) {
         logger.debug("UserRemoteRepository: Creando un nuevo usuario con username: " + user.getUserName());
-        var call = userApiRest.createUserSync(UsuarioMapper.toRequest(user));
         try {
-            var response = call.execute();
-            if (!response.isSuccessful()) {
-                if (response.code() == 500) {
-                    logger.debug("UserRemoteRepository: Error interno servidor" + response.code());
-                    return Optional.empty();
-                } else {
-                    logger.debug("UserRemoteRepository: Error creando usuario " + response.code());
-                    return Optional.empty();
-                }
-            }
-            var timeStamp = LocalDateTime.now();
-            return Optional.of(UsuarioMapper.toUserFromCreate(response.body(),timeStamp,timeStamp));
+            return toUsuarioCreated(userApiRest.createUserSync(UsuarioMapper.toRequest(user)).execute());
         } catch (Exception e) {
             logger.debug("UserRemoteRepository: Error creando usuario" + user + e.getMessage());
             return Optional.empty();
         }
     }
 
+    /**
+     * Crea un nuevo usuario a través de la API de forma asíncrona.
+     *
+     * @param user El usuario a crear.
+     * @return Un {@link CompletableFuture} con el usuario creado, o Optional.empty() si falla.
+     */
+    public CompletableFuture<Optional<Usuario>> createUserAsync(Usuario user) {
+        logger.debug("UserRemoteRepository: Creando de forma asíncrona un nuevo usuario con username: " + user.getUserName());
+        return enqueue(userApiRest.createUserSync(UsuarioMapper.toRequest(user)), this::toUsuarioCreated, "UserRemoteRepository: Error creando usuario" + user);
+    }
+
     /**
      * Actualiza un usuario existente en la API de forma sincrónica.
      *
@@ -130,26 +138,27 @@ public class UserRemoteRepository {
      */
     public Optional<Usuario> updateUserSync(long id, Usuario user) {
         logger.debug("UserRemoteRepository: Actualizando al usuario con id " + id);
-        var call = userApiRest.updateUserSync(id, UsuarioMapper.toRequest(user));
         try {
-            var response = call.execute();
-            if (!response.isSuccessful()) {
-                if (response.code() == 404) {
-                    logger.debug("UserRemoteRepository: Error, usuario no encontrado al actualizar con id " + id);
-                    return Optional.empty();
-                } else {
-                    logger.debug("UserRemoteRepository: Error actualizando usuario " + response.code());
-                    return Optional.empty();
-                }
-            }
-            var timeStamp = LocalDateTime.now();
-            return Optional.of(UsuarioMapper.toUserFromCreate(response.body(), timeStamp));
+            return toUsuarioUpdated(id, userApiRest.updateUserSync(id, UsuarioMapper.toRequest(user)).execute());
         } catch (Exception e) {
             logger.debug("UserRemoteRepository: Error actualizando usuario con id: " + id + e.getMessage());
             return Optional.empty();
         }
     }
 
+    /**
+     * Actualiza un usuario existente en la API de forma asíncrona.
+     *
+     * @param id   El ID del usuario a actualizar.
+     * @param user Los nuevos datos del usuario.
+     * @return Un {@link CompletableFuture} con el usuario actualizado, o Optional.empty() si falla.
+     */
+    public CompletableFuture<Optional<Usuario>> updateUserAsync(long id, Usuario user) {
+        logger.debug("UserRemoteRepository: Actualizando de forma asíncrona al usuario con id " + id);
+        return enqueue(userApiRest.updateUserSync(id, UsuarioMapper.toRequest(user)), response -> toUsuarioUpdated(id, response),
+                "UserRemoteRepository: Error actualizando usuario con id: " + id);
+    }
+
     /**
      * Elimina un usuario por su ID de forma sincrónica.
      *
@@ -158,22 +167,126 @@ public class UserRemoteRepository {
      */
     public Optional<Usuario> deleteUserSync(long id){
         logger.debug("UserRemoteRepository: Eliminando al usuario con id " + id);
-        var call = userApiRest.deleteUserSync(id);
         try {
-            var response = call.execute();
-            if (!response.isSuccessful()) {
-                if (response.code() == 404) {
-                    logger.debug("UserRemoteRepository: Error, usuario no encontrado al eliminar con id " + id);
-                    return Optional.empty();
-                } else {
-                    logger.debug("UserRemoteRepository: Error eliminando usuario " + response.code());
-                    return Optional.empty();
-                }
-            }
-            return Optional.of(UsuarioMapper.toUserFromDelete(response.body()));
+            return toUsuarioDeleted(id, userApiRest.deleteUserSync(id).execute());
         } catch (Exception e) {
             logger.debug("UserRemoteRepository: Error eliminando usuario con id: " + id + e.getMessage());
             return Optional.empty();
         }
     }
+
+    /**
+     * Elimina un usuario por su ID de forma asíncrona.
+     *
+     * @param id El ID del usuario a eliminar.
+     * @return Un {@link CompletableFuture} con el usuario eliminado, o Optional.empty() si falla.
+     */
+    public CompletableFuture<Optional<Usuario>> deleteUserAsync(long id) {
+        logger.debug("UserRemoteRepository: Eliminando de forma asíncrona al usuario con id " + id);
+        return enqueue(userApiRest.deleteUserSync(id), response -> toUsuarioDeleted(id, response),
+                "UserRemoteRepository: Error eliminando usuario con id: " + id);
+    }
+
+    /**
+     * Encola la llamada y devuelve un futuro que se completa con la respuesta ya convertida.
+     * Los errores de red o de conversión completan el futuro con Optional.empty(), igual que en las
+     * versiones sincrónicas, y cancelar el futuro cancela la petición HTTP.
+     *
+     * @param call La llamada de Retrofit a encolar.
+     * @param handler La función que convierte la respuesta.
+     * @param errorMessage El mensaje a registrar si la llamada falla.
+     * @return Un {@link CompletableFuture} con el resultado de la llamada.
+     */
+    private <T, R> CompletableFuture<Optional<R>> enqueue(Call<T> call, Function<Response<T>, Optional<R>> handler, String errorMessage) {
+        CompletableFuture<Optional<R>> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback<>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                try {
+                    future.complete(handler.apply(response));
+                } catch (Exception e) {
+                    logger.error(errorMessage, e);
+                    future.complete(Optional.empty());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                logger.error(errorMessage, t);
+                future.complete(Optional.empty());
+            }
+        });
+        return future;
+    }
+
+    private Optional<List<Usuario>> toUsuarios(Response<List<UserGetAll>> response) {
+        if (!response.isSuccessful()) {
+            logger.error("Error recuperando todos los usuarios: " + response.code());
+            return Optional.empty();
+        }
+        var body = response.body();
+        if (body != null) {
+            return Optional.of(body.stream()
+                    .map(UsuarioMapper::toUserFromCreate)
+                    .toList());
+        } else {
+            logger.error("Response body es null");
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Usuario> toUsuarioById(long id, Response<UserGetById> response) {
+        if (!response.isSuccessful()) {
+            if (response.code() == 404) {
+                logger.debug("UserRemoteRepository: Error, usuario no encontrado con id " + id);
+            } else {
+                logger.error("Error recuperando el usuario con id: " + id + ", código: " + response.code());
+            }
+            return Optional.empty();
+        }
+        return Optional.of(UsuarioMapper.toUserFromCreate(response.body()));
+    }
+
+    private Optional<Usuario> toUsuarioCreated(Response<UserCreate> response) {
+        if (!response.isSuccessful()) {
+            if (response.code() == 500) {
+                logger.debug("UserRemoteRepository: Error interno servidor" + response.code());
+            } else {
+                logger.debug("UserRemoteRepository: Error creando usuario " + response.code());
+            }
+            return Optional.empty();
+        }
+        var timeStamp = LocalDateTime.now();
+        return Optional.of(UsuarioMapper.toUserFromCreate(response.body(),timeStamp,timeStamp));
+    }
+
+    private Optional<Usuario> toUsuarioUpdated(long id, Response<UserCreate> response) {
+        if (!response.isSuccessful()) {
+            if (response.code() == 404) {
+                logger.debug("UserRemoteRepository: Error, usuario no encontrado al actualizar con id " + id);
+            } else {
+                logger.debug("UserRemoteRepository: Error actualizando usuario " + response.code());
+            }
+            return Optional.empty();
+        }
+        var timeStamp = LocalDateTime.now();
+        return Optional.of(UsuarioMapper.toUserFromCreate(response.body(), timeStamp));
+    }
+
+    private Optional<Usuario> toUsuarioDeleted(long id, Response<UserDelete> response) {
+        if (!response.isSuccessful()) {
+            if (response.code() == 404) {
+                logger.debug("UserRemoteRepository: Error, usuario no encontrado al eliminar con id " + id);
+            } else {
+                logger.debug("UserRemoteRepository: Error eliminando usuario " + response.code());
+            }
+            return Optional.empty();
+        }
+        return Optional.of(UsuarioMapper.toUserFromDelete(response.body()));
+    }
 }
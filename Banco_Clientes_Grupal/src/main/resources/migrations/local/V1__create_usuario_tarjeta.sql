@@ -1,6 +1,3 @@
-DROP TABLE IF EXISTS Tarjeta;
-DROP TABLE IF EXISTS Usuario;
-
 CREATE TABLE IF NOT EXISTS Usuario (
     id INTEGER PRIMARY KEY AUTOINCREMENT,
     nombre VARCHAR(255) NOT NULL,
@@ -16,6 +13,5 @@ CREATE TABLE IF NOT EXISTS Tarjeta (
     nombreTitular TEXT NOT NULL,
     fechaCaducidad DATE NOT NULL,
     createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    updatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (nombreTitular) REFERENCES Usuario(nombre) ON DELETE CASCADE
-);
\ No newline at end of file
+    updatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,6 @@
+ALTER TABLE Tarjeta ADD COLUMN usuarioId INTEGER REFERENCES Usuario(id) ON DELETE CASCADE;
+
+UPDATE Tarjeta
+SET usuarioId = (SELECT u.id FROM Usuario u WHERE u.nombre = Tarjeta.nombreTitular ORDER BY u.id LIMIT 1);
+
+CREATE INDEX IF NOT EXISTS idx_tarjeta_usuario_id ON Tarjeta(usuarioId);
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS ClienteChangeLog (
+    secuencia INTEGER PRIMARY KEY AUTOINCREMENT,
+    tipo VARCHAR(16) NOT NULL,
+    clienteId INTEGER,
+    contenido TEXT,
+    createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS ClienteOutbox (
+    secuencia INTEGER PRIMARY KEY AUTOINCREMENT,
+    clienteId INTEGER NOT NULL,
+    contenido TEXT,
+    createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_cliente_outbox_cliente ON ClienteOutbox(clienteId, secuencia);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_tarjetas_nombre_titular ON tarjetas (nombreTitular);
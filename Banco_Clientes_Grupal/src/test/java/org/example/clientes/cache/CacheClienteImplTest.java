@@ -7,6 +7,11 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 class CacheClienteImplTest {
@@ -184,4 +189,82 @@ class CacheClienteImplTest {
         cache.clear();
         assertEquals(0, cache.size(), "La caché debería estar vacía después de limpiar");
     }
+
+    @Test
+    void expiredEntry() throws InterruptedException {
+        CacheClienteImpl cache = new CacheClienteImpl(5, 50);
+        Cliente cliente1 = Cliente1();
+
+        cache.put(cliente1.getId(), cliente1);
+        assertTrue(cache.containsKey(cliente1.getId()), "La caché debería contener cliente1 antes de caducar");
+
+        Thread.sleep(100);
+
+        assertAll( () -> {
+            assertFalse(cache.containsKey(cliente1.getId()), "La caché no debería contener cliente1 tras caducar");
+            assertNull(cache.get(cliente1.getId()), "El cliente caducado debería devolver null");
+            assertEquals(1, cache.getEvictionCount(), "La entrada caducada debería contar como expulsión");
+        });
+    }
+
+    @Test
+    void stats() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        Cliente cliente1 = Cliente1();
+
+        cache.put(cliente1.getId(), cliente1);
+        cache.get(cliente1.getId());
+        cache.get(cliente1.getId());
+        cache.get(3L);
+        for (long i = 10; i < 16; i++) {
+            cache.put(i, Cliente.builder().id(i).build());
+        }
+
+        assertAll( () -> {
+            assertEquals(2, cache.getHitCount(), "Debería haber dos aciertos");
+            assertEquals(1, cache.getMissCount(), "Debería haber un fallo");
+            assertEquals(2, cache.getEvictionCount(), "Deberían haberse expulsado dos clientes");
+            assertEquals(2.0 / 3, cache.getHitRate(), 0.0001, "La tasa de aciertos debería ser 2/3");
+        });
+    }
+
+    @Test
+    void putAllAndGetAll() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        Cliente cliente1 = Cliente1();
+        Cliente cliente2 = Cliente2();
+
+        cache.putAll(Map.of(cliente1.getId(), cliente1, cliente2.getId(), cliente2));
+        Map<Long, Cliente> found = cache.getAll(List.of(1L, 2L, 3L));
+
+        assertAll( () -> {
+            assertEquals(2, cache.size(), "La caché debería contener los dos clientes");
+            assertEquals(Map.of(1L, cliente1, 2L, cliente2), found, "Deberían devolverse solo los clientes presentes");
+            assertEquals(2, cache.getHitCount(), "Debería haber dos aciertos");
+            assertEquals(1, cache.getMissCount(), "Debería haber un fallo");
+        });
+    }
+
+    @Test
+    void concurrentPut() throws InterruptedException {
+        CacheClienteImpl cache = new CacheClienteImpl(1000, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            long base = t * 1000L;
+            executor.submit(() -> {
+                for (long i = base; i < base + 1000; i++) {
+                    cache.put(i, Cliente.builder().id(i).build());
+                    cache.get(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertAll( () -> {
+            assertTrue(cache.size() <= 1000, "La caché no debería superar su tamaño máximo");
+            assertEquals(8000 - cache.size(), cache.getEvictionCount(), "Cada cliente sobrante debería haberse expulsado");
+        });
+    }
 }
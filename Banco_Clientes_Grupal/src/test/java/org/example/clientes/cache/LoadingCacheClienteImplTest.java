@@ -0,0 +1,214 @@
+package org.example.clientes.cache;
+
+import org.example.clientes.model.Cliente;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadingCacheClienteImplTest {
+
+    @Test
+    void getOrLoadHit() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(Cliente.builder().id(id).build());
+        });
+        Cliente cliente = Cliente.builder().id(1L).build();
+        cache.put(1L, cliente);
+
+        assertAll( () -> {
+            assertEquals(cliente, loadingCache.getOrLoad(1L), "Debería devolver el cliente de la caché");
+            assertEquals(0, loads.get(), "No debería cargarse el cliente si está en la caché");
+        });
+    }
+
+    @Test
+    void getOrLoadMiss() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> CompletableFuture.completedFuture(Cliente.builder().id(id).build()));
+
+        Cliente cliente = loadingCache.getOrLoad(2L);
+
+        assertAll( () -> {
+            assertNotNull(cliente, "El cliente debería haberse cargado");
+            assertEquals(2L, cliente.getId());
+            assertTrue(cache.containsKey(2L), "El cliente cargado debería guardarse en la caché");
+        });
+    }
+
+    @Test
+    void getOrLoadNotFound() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> CompletableFuture.completedFuture(null));
+
+        assertAll( () -> {
+            assertNull(loadingCache.getOrLoad(3L), "Debería devolver null si el cliente no existe");
+            assertFalse(cache.containsKey(3L), "No debería guardarse nada en la caché");
+        });
+    }
+
+    @Test
+    void getOrLoadSingleFlight() throws Exception {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return CompletableFuture.completedFuture(Cliente.builder().id(id).build());
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Cliente>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> loadingCache.getOrLoad(4L)));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        Cliente first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Cliente> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS), "Todas las llamadas deberían compartir el mismo resultado");
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads.get(), "El cliente debería cargarse una sola vez");
+    }
+
+    @Test
+    void getOrLoadError() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> {
+            throw new IllegalStateException("Error de carga");
+        });
+
+        assertThrows(IllegalStateException.class, () -> loadingCache.getOrLoad(5L));
+        assertFalse(cache.containsKey(5L), "No debería guardarse nada en la caché");
+    }
+
+    @Test
+    void getOrLoadErrorReleasesWaiters() throws Exception {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("Error grave de carga");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Cliente> loader = executor.submit(() -> loadingCache.getOrLoad(6L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<Cliente> waiter = executor.submit(() -> loadingCache.getOrLoad(6L));
+        Thread.sleep(100);
+        release.countDown();
+
+        ExecutionException loaderError = assertThrows(ExecutionException.class, () -> loader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS),
+                "La llamada en espera no debería quedarse bloqueada");
+        executor.shutdown();
+
+        assertAll(() -> {
+            assertInstanceOf(AssertionError.class, loaderError.getCause());
+            assertInstanceOf(AssertionError.class, waiterError.getCause());
+        });
+    }
+
+    @Test
+    void getOrLoadAsyncDoesNotBlock() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        CompletableFuture<Cliente> remoto = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> {
+            loads.incrementAndGet();
+            return remoto;
+        });
+
+        CompletableFuture<Cliente> first = loadingCache.getOrLoadAsync(7L);
+        CompletableFuture<Cliente> second = loadingCache.getOrLoadAsync(7L);
+
+        assertFalse(first.isDone(), "La carga no debería completarse hasta que responda el origen");
+        assertNotSame(first, second, "Cada llamada debería recibir su propio futuro de la carga en curso");
+
+        remoto.complete(Cliente.builder().id(7L).build());
+
+        assertAll(() -> {
+            assertEquals(7L, first.join().getId());
+            assertSame(first.join(), second.join(), "Las llamadas concurrentes deberían compartir el resultado");
+            assertTrue(cache.containsKey(7L), "El cliente cargado debería guardarse en la caché");
+            assertEquals(1, loads.get(), "El cliente debería cargarse una sola vez");
+        });
+    }
+
+    @Test
+    void getOrLoadAsyncFailure() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache,
+                id -> CompletableFuture.failedFuture(new IllegalStateException("Error de carga")));
+
+        assertThrows(IllegalStateException.class, () -> loadingCache.getOrLoad(8L));
+        assertFalse(cache.containsKey(8L), "No debería guardarse nada en la caché");
+    }
+
+    @Test
+    void getOrLoadAsyncTimeoutCancelsLoader() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        CompletableFuture<Cliente> remoto = new CompletableFuture<>();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> remoto);
+
+        CompletableFuture<Cliente> load = loadingCache.getOrLoadAsync(9L).orTimeout(50, TimeUnit.MILLISECONDS);
+
+        CompletionException error = assertThrows(CompletionException.class, load::join);
+        assertAll(() -> {
+            assertInstanceOf(TimeoutException.class, error.getCause());
+            assertThrows(CancellationException.class, () -> remoto.get(5, TimeUnit.SECONDS),
+                    "Al vencer el plazo debería cancelarse la carga del origen");
+            assertFalse(cache.containsKey(9L), "No debería guardarse nada en la caché");
+        });
+    }
+
+    @Test
+    void getOrLoadAsyncTimeoutOnlyAffectsCaller() {
+        CacheClienteImpl cache = new CacheClienteImpl();
+        CompletableFuture<Cliente> remoto = new CompletableFuture<>();
+        LoadingCacheClienteImpl loadingCache = new LoadingCacheClienteImpl(cache, id -> remoto);
+
+        CompletableFuture<Cliente> impaciente = loadingCache.getOrLoadAsync(10L).orTimeout(50, TimeUnit.MILLISECONDS);
+        CompletableFuture<Cliente> paciente = loadingCache.getOrLoadAsync(10L);
+
+        CompletionException error = assertThrows(CompletionException.class, impaciente::join);
+        remoto.complete(Cliente.builder().id(10L).build());
+
+        assertAll(() -> {
+            assertInstanceOf(TimeoutException.class, error.getCause());
+            assertFalse(remoto.isCancelled(), "La carga no debería cancelarse mientras alguien la espere");
+            assertEquals(10L, paciente.join().getId(), "El plazo de otra llamada no debería afectar a esta");
+            assertTrue(cache.containsKey(10L));
+        });
+    }
+}
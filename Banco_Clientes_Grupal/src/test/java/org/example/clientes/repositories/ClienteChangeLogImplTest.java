@@ -0,0 +1,89 @@
+package org.example.clientes.repositories;
+
+import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Notificacion;
+import org.example.clientes.model.Tarjeta;
+import org.example.clientes.model.Usuario;
+import org.example.config.ConfigProperties;
+import org.example.database.LocalDataBaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClienteChangeLogImplTest {
+    @TempDir
+    Path tempDir;
+
+    private LocalDataBaseManager dataBaseManager;
+    private ClienteChangeLogImpl changeLog;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:sqlite:" + tempDir.resolve("changelog.db");
+        dataBaseManager = new LocalDataBaseManager(new ConfigProperties() {
+            @Override
+            public String getProperty(String key, String defaultValue) {
+                return "local.database.url".equals(key) ? url : super.getProperty(key, defaultValue);
+            }
+        });
+        changeLog = new ClienteChangeLogImpl(dataBaseManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dataBaseManager.close();
+    }
+
+    private Cliente cliente(long id) {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 30);
+        return new Cliente(id,
+                new Usuario(id, "Ana", "ana" + id, "ana" + id + "@example.com", now, now),
+                List.of(new Tarjeta(id, "Ana", "1234567890123456", LocalDate.of(2026, 1, 31), now, now)),
+                now, now);
+    }
+
+    @Test
+    void appendAndGetFrom() throws SQLException {
+        Notificacion<Cliente> alta = new Notificacion<>(Notificacion.Tipo.NEW, cliente(1L));
+        Notificacion<Cliente> baja = new Notificacion<>(Notificacion.Tipo.DELETED, cliente(2L));
+
+        long primera = changeLog.append(alta);
+        long segunda = changeLog.append(baja);
+        List<Notificacion<Cliente>> desdeSegunda = changeLog.getFrom(segunda, 10);
+
+        assertAll(() -> {
+            assertTrue(primera > 0, "Debería asignarse una secuencia");
+            assertEquals(primera + 1, segunda, "Las secuencias deberían ser consecutivas");
+            assertEquals(primera, alta.getSecuencia(), "La secuencia debería asignarse a la notificación");
+            assertEquals(2, changeLog.getFrom(primera, 10).size());
+            assertEquals(1, desdeSegunda.size());
+            assertEquals(Notificacion.Tipo.DELETED, desdeSegunda.getFirst().getTipo());
+            assertEquals(cliente(2L), desdeSegunda.getFirst().getContenido(), "El cliente debería conservar su estado");
+        });
+    }
+
+    @Test
+    void compact() throws SQLException {
+        long primera = changeLog.append(new Notificacion<>(Notificacion.Tipo.NEW, cliente(1L)));
+        changeLog.append(new Notificacion<>(Notificacion.Tipo.UPDATED, cliente(1L)));
+        long ultima = changeLog.append(new Notificacion<>(Notificacion.Tipo.DELETED, cliente(1L)));
+
+        int borradas = changeLog.compact(1);
+        List<Notificacion<Cliente>> restantes = changeLog.getFrom(primera, 10);
+
+        assertAll(() -> {
+            assertEquals(2, borradas, "Deberían eliminarse las dos notificaciones más antiguas");
+            assertEquals(1, restantes.size());
+            assertEquals(ultima, restantes.getFirst().getSecuencia());
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.clientes.repositories;
+
+import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Tarjeta;
+import org.example.clientes.model.Usuario;
+import org.example.config.ConfigProperties;
+import org.example.database.LocalDataBaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClienteOutboxImplTest {
+    @TempDir
+    Path tempDir;
+
+    private LocalDataBaseManager dataBaseManager;
+    private ClienteOutboxImpl outbox;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:sqlite:" + tempDir.resolve("outbox.db");
+        dataBaseManager = new LocalDataBaseManager(new ConfigProperties() {
+            @Override
+            public String getProperty(String key, String defaultValue) {
+                return "local.database.url".equals(key) ? url : super.getProperty(key, defaultValue);
+            }
+        });
+        outbox = new ClienteOutboxImpl(dataBaseManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dataBaseManager.close();
+    }
+
+    private Cliente cliente(long id, String nombre) {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 30);
+        return new Cliente(id,
+                new Usuario(id, nombre, nombre.toLowerCase() + id, nombre.toLowerCase() + id + "@example.com", now, now),
+                List.of(new Tarjeta(id, nombre, "1234567890123456", LocalDate.of(2026, 1, 31), now, now)),
+                now, now);
+    }
+
+    @Test
+    void getPendingKeepsLastWritePerCliente() {
+        long primera = outbox.append(1L, cliente(1L, "Ana"));
+        long borrado = outbox.append(2L, null);
+        long segunda = outbox.append(1L, cliente(1L, "Ana María"));
+
+        List<ClienteOutbox.Entrada> pendientes = outbox.getPending();
+
+        assertAll(
+                () -> assertTrue(primera > 0 && borrado > primera && segunda > borrado, "Las secuencias deberían ser crecientes"),
+                () -> assertEquals(2, pendientes.size()),
+                () -> assertEquals(new ClienteOutbox.Entrada(borrado, 2L, null), pendientes.get(0)),
+                () -> assertEquals(new ClienteOutbox.Entrada(segunda, 1L, cliente(1L, "Ana María")), pendientes.get(1))
+        );
+    }
+
+    @Test
+    void removeKeepsLaterWrites() {
+        long primera = outbox.append(1L, cliente(1L, "Ana"));
+        long segunda = outbox.append(1L, cliente(1L, "Ana María"));
+        long borrado = outbox.append(2L, null);
+
+        int borradas = outbox.remove(Map.of(1L, primera, 2L, borrado));
+
+        assertAll(
+                () -> assertEquals(2, borradas),
+                () -> assertEquals(List.of(new ClienteOutbox.Entrada(segunda, 1L, cliente(1L, "Ana María"))), outbox.getPending(),
+                        "La escritura registrada después de la aplicada debería conservarse")
+        );
+    }
+
+    @Test
+    void appendAllInOneTransaction() {
+        long anterior = outbox.append(1L, cliente(1L, "Ana"));
+
+        Map<Long, Long> secuencias = outbox.appendAll(List.of(cliente(1L, "Ana María"), cliente(2L, "Pedro")));
+        List<ClienteOutbox.Entrada> pendientes = outbox.getPending();
+
+        assertAll(
+                () -> assertEquals(2, secuencias.size()),
+                () -> assertTrue(secuencias.get(1L) > anterior && secuencias.get(2L) > secuencias.get(1L)),
+                () -> assertEquals(List.of(
+                        new ClienteOutbox.Entrada(secuencias.get(1L), 1L, cliente(1L, "Ana María")),
+                        new ClienteOutbox.Entrada(secuencias.get(2L), 2L, cliente(2L, "Pedro"))), pendientes)
+        );
+    }
+}
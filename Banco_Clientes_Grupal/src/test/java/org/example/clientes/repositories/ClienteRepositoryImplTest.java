@@ -7,7 +7,11 @@ import org.example.config.ConfigProperties;
 import org.example.database.LocalDataBaseManager;
 import org.example.rest.repository.UserRemoteRepository;
 import org.junit.jupiter.api.*;
+import reactor.test.StepVerifier;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -22,7 +26,11 @@ public class ClienteRepositoryImplTest {
     private static LocalDataBaseManager dataBaseManager;
 
     @BeforeAll
-    static void setUpAll() throws SQLException {
+    static void setUpAll() throws SQLException, IOException {
+        // El script de inicialización solo se ejecuta sobre una base de datos vacía
+        for (String file : List.of("clients.db", "clients.db-wal", "clients.db-shm")) {
+            Files.deleteIfExists(Path.of(file));
+        }
         ConfigProperties properties = new ConfigProperties();
         dataBaseManager = LocalDataBaseManager.getInstance(properties);
         dataBaseManager.connect();
@@ -59,6 +67,43 @@ public class ClienteRepositoryImplTest {
 
     @Order(3)
     @Test
+    public void testGetByIds() {
+        List<Cliente> clientes = clienteRepository.getByIds(List.of(2L, 1L, 99L, 1L));
+        assertEquals(2, clientes.size());
+        assertEquals("Ana", clientes.getFirst().getUsuario().getNombre());
+        assertEquals("Maria", clientes.get(1).getUsuario().getNombre());
+        assertEquals(1, clientes.get(1).getTarjeta().size());
+
+        assertTrue(clienteRepository.getByIds(List.of()).isEmpty());
+    }
+
+    @Order(4)
+    @Test
+    public void testGetPage() {
+        List<Cliente> primeraPagina = clienteRepository.getPage(0L, 1);
+        assertEquals(1, primeraPagina.size());
+        assertEquals("Ana", primeraPagina.getFirst().getUsuario().getNombre());
+
+        List<Cliente> segundaPagina = clienteRepository.getPage(primeraPagina.getFirst().getId(), 1);
+        assertEquals(1, segundaPagina.size());
+        assertEquals("Maria", segundaPagina.getFirst().getUsuario().getNombre());
+        assertEquals(1, segundaPagina.getFirst().getTarjeta().size());
+
+        List<Cliente> ultimaPagina = clienteRepository.getPage(segundaPagina.getFirst().getId(), 1);
+        assertTrue(ultimaPagina.isEmpty());
+    }
+
+    @Order(5)
+    @Test
+    public void testGetAllAsFlux() {
+        StepVerifier.create(clienteRepository.getAllAsFlux())
+                .assertNext(cliente -> assertEquals("Ana", cliente.getUsuario().getNombre()))
+                .assertNext(cliente -> assertEquals("Maria", cliente.getUsuario().getNombre()))
+                .verifyComplete();
+    }
+
+    @Order(6)
+    @Test
     public void testCreate() {
         Usuario usuario = Usuario.builder()
                 .id(2L)
@@ -111,14 +156,57 @@ public class ClienteRepositoryImplTest {
         assertEquals(createdCliente.getId(), cliente2.get().getId());
         assertEquals("Pedro", cliente2.get().getUsuario().getNombre());
         assertNotNull(cliente2.get().getTarjeta());
-        assertEquals(1, cliente2.get().getTarjeta().size());
+        assertEquals(2, cliente2.get().getTarjeta().size());
 
         Tarjeta tarjetaRecibida = cliente2.get().getTarjeta().get(0);
 
         assertEquals("9876543210987654", tarjetaRecibida.getNumeroTarjeta());
     }
 
-    @Order(4)
+    @Order(7)
+    @Test
+    public void testCreateAll() {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Usuario usuario = Usuario.builder()
+                    .nombre("Lote" + i)
+                    .userName("lote" + i)
+                    .email("lote" + i + "@ejemplo.com")
+                    .build();
+            // Cada cliente tiene un número distinto de tarjetas para comprobar el reparto de los ID del lote
+            List<Tarjeta> tarjetas = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                tarjetas.add(Tarjeta.builder()
+                        .numeroTarjeta("11112222333" + i + "444" + j)
+                        .nombreTitular("Lote" + i)
+                        .fechaCaducidad(LocalDate.of(2027, 1, 31))
+                        .build());
+            }
+            clientes.add(Cliente.builder().usuario(usuario).tarjeta(tarjetas).build());
+        }
+
+        List<Cliente> createdClientes = clienteRepository.createAll(clientes);
+
+        assertEquals(3, createdClientes.size());
+        assertTrue(clientes.stream().allMatch(c -> c.getId() == null && c.getTarjeta().stream().allMatch(t -> t.getId() == null)),
+                "Los clientes recibidos no deberían modificarse");
+        for (int i = 0; i < createdClientes.size(); i++) {
+            Cliente createdCliente = createdClientes.get(i);
+            Optional<Cliente> cliente = clienteRepository.getById(createdCliente.getId());
+
+            assertTrue(cliente.isPresent());
+            assertEquals("Lote" + i, createdCliente.getUsuario().getNombre());
+            assertEquals(createdCliente.getUsuario().getNombre(), cliente.get().getUsuario().getNombre());
+            assertEquals(i, cliente.get().getTarjeta().size());
+            for (Tarjeta creada : createdCliente.getTarjeta()) {
+                assertTrue(cliente.get().getTarjeta().stream().anyMatch(t -> t.getId().equals(creada.getId())
+                                && t.getNumeroTarjeta().equals(creada.getNumeroTarjeta())),
+                        "Cada tarjeta devuelta debería tener el ID con el que se guardó");
+            }
+        }
+    }
+
+    @Order(8)
     @Test
     public void testUpdate() {
 
@@ -163,7 +251,7 @@ public class ClienteRepositoryImplTest {
         assertEquals("6543210987654324", tarjetaRecibida.getNumeroTarjeta());
     }
 
-    @Order(5)
+    @Order(9)
     @Test
     public void testDelete() {
 
@@ -175,7 +263,7 @@ public class ClienteRepositoryImplTest {
         assertFalse(deletedCliente.isPresent());
     }
 
-    @Order(6)
+    @Order(10)
     @Test
     public void testDeleteAll() {
         List<Cliente> clientesAntes = clienteRepository.getAll();
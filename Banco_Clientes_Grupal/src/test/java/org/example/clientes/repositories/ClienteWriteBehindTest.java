@@ -0,0 +1,222 @@
+package org.example.clientes.repositories;
+
+import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Usuario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClienteWriteBehindTest {
+
+    @Mock
+    ClienteRepository clienteRepository;
+
+    @Mock
+    ClienteOutbox outbox;
+
+    private Cliente cliente(long id, String nombre) {
+        return Cliente.builder()
+                .id(id)
+                .usuario(Usuario.builder().id(id).nombre(nombre).build())
+                .tarjeta(List.of())
+                .build();
+    }
+
+    @Test
+    void flushCoalesce() {
+        Cliente cliente1 = cliente(1L, "Ana");
+        Cliente cliente1Modificado = cliente(1L, "Ana María");
+        Cliente cliente3 = cliente(3L, "Pedro");
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3)) {
+            writeBehind.save(cliente1);
+            writeBehind.delete(2L);
+            writeBehind.save(cliente1Modificado);
+            writeBehind.save(cliente3);
+            assertEquals(3, writeBehind.getPendingCount());
+
+            writeBehind.flush();
+
+            verify(clienteRepository).applyChanges(List.of(cliente1Modificado, cliente3), List.of(), List.of(1L, 2L, 3L));
+            assertAll(() -> {
+                assertEquals(0, writeBehind.getPendingCount(), "No deberían quedar escrituras pendientes");
+                assertEquals(3, writeBehind.getWrittenCount(), "Deberían contarse las tres escrituras combinadas");
+            });
+        }
+    }
+
+    @Test
+    void flushRetryIndividually() {
+        Cliente cliente1 = cliente(1L, "Ana");
+        Cliente cliente2 = cliente(2L, "Pedro");
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(false, true);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3)) {
+            writeBehind.save(cliente1);
+            writeBehind.save(cliente2);
+
+            writeBehind.flush();
+            assertEquals(2, writeBehind.getPendingCount(), "El lote fallido debería reencolarse");
+
+            writeBehind.flush();
+
+            verify(clienteRepository).applyChanges(List.of(cliente1), List.of(), List.of(1L));
+            verify(clienteRepository).applyChanges(List.of(cliente2), List.of(), List.of(2L));
+            assertAll(() -> {
+                assertEquals(0, writeBehind.getPendingCount());
+                assertEquals(2, writeBehind.getWrittenCount());
+                assertEquals(1, writeBehind.getFailedFlushCount());
+            });
+        }
+    }
+
+    @Test
+    void parkAfterMaxRetries() {
+        when(outbox.append(eq(1L), any())).thenReturn(7L);
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(false);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 2)) {
+            writeBehind.save(cliente(1L, "Ana"));
+
+            writeBehind.flush();
+            writeBehind.flush();
+
+            assertAll(() -> {
+                assertEquals(0, writeBehind.getPendingCount(), "La escritura debería retirarse de la cola");
+                assertEquals(1, writeBehind.getParkedCount());
+                assertEquals(2, writeBehind.getFailedFlushCount());
+            });
+            verify(outbox, never()).remove(any());
+        }
+    }
+
+    @Test
+    void journalAndRemoveApplied() {
+        Cliente cliente1 = cliente(1L, "Ana");
+        when(outbox.append(1L, cliente1)).thenReturn(10L);
+        when(outbox.append(2L, null)).thenReturn(11L);
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3)) {
+            writeBehind.save(cliente1);
+            writeBehind.delete(2L);
+
+            writeBehind.flush();
+
+            verify(outbox).remove(Map.of(1L, 10L, 2L, 11L));
+        }
+    }
+
+    @Test
+    void saveAllJournalsInOneCall() {
+        Cliente cliente1 = cliente(1L, "Ana");
+        Cliente cliente2 = cliente(2L, "Pedro");
+        when(outbox.appendAll(List.of(cliente1, cliente2))).thenReturn(Map.of(1L, 3L, 2L, 4L));
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3)) {
+            writeBehind.saveAll(List.of(cliente1, cliente2));
+            assertEquals(2, writeBehind.getPendingCount());
+
+            writeBehind.flush();
+
+            verify(outbox, never()).append(anyLong(), any());
+            verify(outbox).remove(Map.of(1L, 3L, 2L, 4L));
+        }
+    }
+
+    @Test
+    void unjournaledWriteRemovesOlderRows() {
+        Cliente cliente1 = cliente(1L, "Ana");
+        Cliente cliente1Modificado = cliente(1L, "Ana María");
+        when(outbox.append(1L, cliente1)).thenReturn(5L);
+        when(outbox.append(1L, cliente1Modificado)).thenReturn(-1L);
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3)) {
+            writeBehind.save(cliente1);
+            writeBehind.save(cliente1Modificado);
+
+            writeBehind.flush();
+
+            verify(clienteRepository).applyChanges(List.of(cliente1Modificado), List.of(), List.of(1L));
+            // La fila anterior no debe reaplicarse al reiniciar sobre la escritura más reciente
+            verify(outbox).remove(Map.of(1L, 5L));
+        }
+    }
+
+    @Test
+    void recoverFromJournal() {
+        Cliente cliente1 = cliente(1L, "Ana");
+        when(outbox.getPending()).thenReturn(List.of(
+                new ClienteOutbox.Entrada(4L, 1L, cliente1),
+                new ClienteOutbox.Entrada(5L, 2L, null)));
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3)) {
+            assertEquals(2, writeBehind.getPendingCount(), "Deberían recuperarse las escrituras del diario");
+
+            writeBehind.flush();
+
+            verify(clienteRepository).applyChanges(List.of(cliente1), List.of(), List.of(1L, 2L));
+            verify(outbox).remove(Map.of(1L, 4L, 2L, 5L));
+        }
+    }
+
+    @Test
+    void pendingVisibleToReads() {
+        Cliente cliente1 = cliente(1L, "Ana");
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3)) {
+            writeBehind.save(cliente1);
+            writeBehind.delete(2L);
+
+            assertAll(() -> {
+                assertEquals(Optional.of(cliente1), writeBehind.getPendingSave(1L));
+                assertFalse(writeBehind.isPendingDelete(1L));
+                assertTrue(writeBehind.isPendingDelete(2L));
+                assertEquals(Optional.empty(), writeBehind.getPendingSave(2L));
+                assertFalse(writeBehind.isPending(3L));
+                assertTrue(writeBehind.hasPending());
+            });
+            when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+        }
+    }
+
+    @Test
+    void flushWhenBatchFull() {
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+        try (ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 2, 60000, 3)) {
+            writeBehind.save(cliente(1L, "Ana"));
+            writeBehind.save(cliente(2L, "Pedro"));
+
+            verify(clienteRepository, timeout(1000)).applyChanges(any(), any(), eq(List.of(1L, 2L)));
+        }
+    }
+
+    @Test
+    void closeDrainsPending() {
+        Cliente cliente1 = cliente(1L, "Ana");
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+        ClienteWriteBehind writeBehind = new ClienteWriteBehind(clienteRepository, outbox, 100, 60000, 3);
+        writeBehind.save(cliente1);
+
+        writeBehind.close();
+
+        verify(clienteRepository).applyChanges(List.of(cliente1), List.of(), List.of(1L));
+        assertThrows(IllegalStateException.class, () -> writeBehind.save(cliente1));
+    }
+}
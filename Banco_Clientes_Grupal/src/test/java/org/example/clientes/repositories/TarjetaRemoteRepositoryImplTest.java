@@ -1,6 +1,7 @@
 package org.example.clientes.repositories;
 
 import org.example.clientes.model.Tarjeta;
+import org.example.database.MigrationRunner;
 import org.example.database.RemoteDataBaseManager;
 import org.junit.jupiter.api.*;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -12,12 +13,13 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
-@Testcontainers
+@Testcontainers(disabledWithoutDocker = true)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class TarjetaRemoteRepositoryImplTest {
 /*
@@ -163,4 +165,92 @@ public class TarjetaRemoteRepositoryImplTest {
     }
 
  */
-}
\ No newline at end of file
+
+    @Container
+    private static final PostgreSQLContainer<?> titularesContainer = new PostgreSQLContainer<>("postgres:12-alpine")
+            .withDatabaseName("tarjetas_db")
+            .withUsername("admin")
+            .withPassword("admin123");
+
+    private TarjetaRemoteRepositoryImpl repository;
+
+    @BeforeAll
+    void setUpTitulares() throws SQLException {
+        RemoteDataBaseManager manager = new RemoteDataBaseManager() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(
+                        titularesContainer.getJdbcUrl(),
+                        titularesContainer.getUsername(),
+                        titularesContainer.getPassword()
+                );
+            }
+        };
+        try (Connection connection = manager.getConnection()) {
+            new MigrationRunner("migrations/remote", List.of(
+                    "V1__create_tarjetas.sql",
+                    "V2__tarjetas_nombre_titular_index.sql"
+            )).migrate(connection);
+        }
+        repository = new TarjetaRemoteRepositoryImpl(manager);
+        repository.create(tarjeta("Ana", "1111222233334444"));
+        repository.create(tarjeta("Maria", "5555666677778888"));
+        repository.create(tarjeta("Ana", "9999000011112222"));
+        repository.create(tarjeta("Pedro", "1234123412341234"));
+    }
+
+    private Tarjeta tarjeta(String titular, String numero) {
+        return Tarjeta.builder()
+                .nombreTitular(titular)
+                .numeroTarjeta(numero)
+                .fechaCaducidad(LocalDate.of(2027, 1, 31))
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    void getByTitular() {
+        List<Tarjeta> tarjetas = repository.getByTitular("Ana");
+
+        assertAll(
+                () -> assertEquals(2, tarjetas.size()),
+                () -> assertEquals(List.of("1111222233334444", "9999000011112222"),
+                        tarjetas.stream().map(Tarjeta::getNumeroTarjeta).toList()),
+                () -> assertTrue(tarjetas.stream().allMatch(t -> t.getId() != null))
+        );
+    }
+
+    @Test
+    @Order(2)
+    void getByTitularSinTarjetas() {
+        assertTrue(repository.getByTitular("Luis").isEmpty());
+    }
+
+    @Test
+    @Order(3)
+    void getByTitularesVariosTitulares() {
+        Map<String, List<Tarjeta>> tarjetas = repository.getByTitulares(List.of("Ana", "Maria", "Luis"));
+
+        assertAll(
+                () -> assertEquals(2, tarjetas.size(), "Un titular sin tarjetas no debería aparecer en el mapa"),
+                () -> assertEquals(List.of("1111222233334444", "9999000011112222"),
+                        tarjetas.get("Ana").stream().map(Tarjeta::getNumeroTarjeta).toList()),
+                () -> assertEquals(List.of("5555666677778888"),
+                        tarjetas.get("Maria").stream().map(Tarjeta::getNumeroTarjeta).toList()),
+                () -> assertFalse(tarjetas.containsKey("Pedro")),
+                () -> assertFalse(tarjetas.containsKey("Luis"))
+        );
+    }
+
+    @Test
+    @Order(4)
+    void getByTitularesVacio() {
+        assertTrue(repository.getByTitulares(List.of()).isEmpty());
+    }
+
+    @Test
+    @Order(5)
+    void getByTitularesSoloTitularSinTarjetas() {
+        assertTrue(repository.getByTitulares(List.of("Luis")).isEmpty());
+    }
+}
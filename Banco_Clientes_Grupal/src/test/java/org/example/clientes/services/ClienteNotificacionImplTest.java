@@ -4,6 +4,8 @@ import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Notificacion;
 import org.example.clientes.model.Tarjeta;
 import org.example.clientes.model.Usuario;
+import org.example.clientes.repositories.ClienteChangeLog;
+import org.example.config.ConfigProperties;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +13,21 @@ import org.mockito.MockitoAnnotations;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ClienteNotificacionImplTest {
     private ClienteNotificacionImpl clienteNotificacion;
@@ -77,4 +89,260 @@ public class ClienteNotificacionImplTest {
                 .thenCancel()
                 .verify();
     }
-}
\ No newline at end of file
+
+    private Notificacion<Cliente> notificacion(long id) {
+        return new Notificacion<>(Notificacion.Tipo.NEW, Cliente.builder().id(id).build());
+    }
+
+    @Test
+    void notifyWithoutSubscribers() {
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(4, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100);
+
+        assertDoesNotThrow(() -> bus.notify(notificacion(1L)));
+        assertEquals(1, bus.getUndeliveredCount());
+    }
+
+    @Test
+    void blockWithoutSubscribersDiscards() {
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(4, ClienteNotificacionImpl.Overflow.BLOCK, 100);
+        Notificacion<Cliente> nueva = notificacion(3L);
+
+        bus.notify(notificacion(1L));
+        bus.notify(notificacion(2L));
+        assertEquals(2, bus.getUndeliveredCount());
+
+        StepVerifier.create(bus.getNotificationAsFlux())
+                .then(() -> bus.notify(nueva))
+                .expectNext(nueva)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void dropOldest() {
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(2, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100);
+        List<Notificacion<Cliente>> notificaciones = List.of(notificacion(1L), notificacion(2L), notificacion(3L), notificacion(4L));
+
+        StepVerifier.create(bus.getNotificationAsFlux(), 0)
+                .then(() -> notificaciones.forEach(bus::notify))
+                .then(() -> {
+                    ClienteNotificacionImpl.Stats stats = bus.getSubscriberStats().getFirst();
+                    assertEquals(2, stats.getDropped(), "Deberían descartarse las dos notificaciones más antiguas");
+                    assertEquals(2, stats.getLag(), "Deberían quedar dos notificaciones pendientes");
+                })
+                .thenRequest(2)
+                .expectNext(notificaciones.get(2), notificaciones.get(3))
+                .thenCancel()
+                .verify();
+
+        assertTrue(bus.getSubscriberStats().isEmpty(), "La suscripción cancelada no debería tener métricas");
+    }
+
+    @Test
+    void blockUntilTimeout() {
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(2, ClienteNotificacionImpl.Overflow.BLOCK, 50);
+        List<Notificacion<Cliente>> notificaciones = List.of(notificacion(1L), notificacion(2L), notificacion(3L));
+
+        StepVerifier.create(bus.getNotificationAsFlux(), 0)
+                .then(() -> notificaciones.forEach(bus::notify))
+                .then(() -> assertEquals(1, bus.getUndeliveredCount(), "La notificación que no cabe debería descartarse tras la espera"))
+                .thenRequest(2)
+                .expectNext(notificaciones.get(0), notificaciones.get(1))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void invalidOverflow() {
+        ConfigProperties config = new ConfigProperties() {
+            @Override
+            public String getProperty(String key, String defaultValue) {
+                return "notifications.overflow".equals(key) ? "discard" : defaultValue;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> new ClienteNotificacionImpl(config));
+    }
+
+    @Test
+    void coalesce() {
+        Cliente cliente1 = Cliente.builder().id(1L).build();
+        Cliente cliente1Modificado = Cliente.builder().id(1L).build();
+        Cliente cliente2 = Cliente.builder().id(2L).build();
+        Cliente cliente3 = Cliente.builder().id(3L).build();
+
+        List<Notificacion<Cliente>> combinadas = ClienteNotificacionImpl.coalesce(List.of(
+                new Notificacion<>(Notificacion.Tipo.NEW, cliente1),
+                new Notificacion<>(Notificacion.Tipo.NEW, cliente2),
+                new Notificacion<>(Notificacion.Tipo.DELETED, cliente3),
+                new Notificacion<>(Notificacion.Tipo.UPDATED, cliente1Modificado),
+                new Notificacion<>(Notificacion.Tipo.DELETED, cliente2),
+                new Notificacion<>(Notificacion.Tipo.NEW, cliente3)));
+
+        assertAll(() -> {
+            assertEquals(2, combinadas.size(), "El alta seguida de baja debería desaparecer");
+            assertEquals(Notificacion.Tipo.NEW, combinadas.get(0).getTipo());
+            assertSame(cliente1Modificado, combinadas.get(0).getContenido(), "Debería entregarse el último estado");
+            assertEquals(Notificacion.Tipo.UPDATED, combinadas.get(1).getTipo());
+            assertSame(cliente3, combinadas.get(1).getContenido());
+        });
+    }
+
+    @Test
+    void notificationBatches() {
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 3, 60000);
+        Notificacion<Cliente> alta = notificacion(1L);
+        Notificacion<Cliente> modificacion = new Notificacion<>(Notificacion.Tipo.UPDATED, Cliente.builder().id(1L).build());
+        Notificacion<Cliente> otraAlta = notificacion(2L);
+
+        StepVerifier.create(bus.getNotificationBatchesAsFlux())
+                .then(() -> {
+                    bus.notify(alta);
+                    bus.notify(modificacion);
+                    bus.notify(otraAlta);
+                })
+                .assertNext(lote -> {
+                    assertEquals(2, lote.size(), "El lote debería combinar las notificaciones del cliente 1");
+                    assertSame(modificacion.getContenido(), lote.getFirst().getContenido());
+                    assertSame(otraAlta, lote.get(1));
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    private Notificacion<Cliente> registrada(long secuencia) {
+        Notificacion<Cliente> notificacion = notificacion(secuencia);
+        notificacion.setSecuencia(secuencia);
+        return notificacion;
+    }
+
+    private ClienteChangeLog changeLog(long siguienteSecuencia) {
+        ClienteChangeLog changeLog = mock(ClienteChangeLog.class);
+        when(changeLog.append(any())).thenAnswer(invocation -> {
+            Notificacion<Cliente> notificacion = invocation.getArgument(0);
+            notificacion.setSecuencia(siguienteSecuencia);
+            return siguienteSecuencia;
+        });
+        return changeLog;
+    }
+
+    @Test
+    void replayFromSequence() throws Exception {
+        ClienteChangeLog changeLog = changeLog(3L);
+        Notificacion<Cliente> primera = registrada(1L);
+        Notificacion<Cliente> segunda = registrada(2L);
+        when(changeLog.getFrom(eq(1L), anyInt())).thenReturn(List.of(primera, segunda));
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 1000, changeLog);
+        Notificacion<Cliente> nueva = notificacion(3L);
+
+        StepVerifier.create(bus.getNotificationAsFlux(1L))
+                .expectNext(primera, segunda)
+                .then(() -> bus.notify(nueva))
+                .expectNext(nueva)
+                .thenCancel()
+                .verify();
+
+        assertEquals(3L, nueva.getSecuencia());
+    }
+
+    @Test
+    void replayFillsGap() throws Exception {
+        ClienteChangeLog changeLog = changeLog(4L);
+        Notificacion<Cliente> primera = registrada(1L);
+        Notificacion<Cliente> segunda = registrada(2L);
+        Notificacion<Cliente> tercera = registrada(3L);
+        when(changeLog.getFrom(eq(1L), anyInt())).thenReturn(List.of(primera));
+        // La relectura tras suscribirse al vivo aún no las ve; la recuperación del hueco sí
+        when(changeLog.getFrom(eq(2L), anyInt())).thenReturn(List.of(), List.of(segunda, tercera));
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 1000, changeLog);
+        Notificacion<Cliente> nueva = notificacion(4L);
+
+        StepVerifier.create(bus.getNotificationAsFlux(1L))
+                .expectNext(primera)
+                .then(() -> bus.notify(nueva))
+                .expectNext(segunda, tercera, nueva)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void replayRereadsLogAfterSubscribingLive() throws Exception {
+        ClienteChangeLog changeLog = changeLog(3L);
+        Notificacion<Cliente> primera = registrada(1L);
+        // Registrada y emitida entre la lectura inicial y la suscripción al vivo
+        Notificacion<Cliente> segunda = registrada(2L);
+        when(changeLog.getFrom(eq(1L), anyInt())).thenReturn(List.of(primera));
+        when(changeLog.getFrom(eq(2L), anyInt())).thenReturn(List.of(segunda));
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 1000, changeLog);
+
+        StepVerifier.create(bus.getNotificationAsFlux(1L))
+                .expectNext(primera, segunda)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void replayFromCompactedSequence() throws Exception {
+        ClienteChangeLog changeLog = changeLog(11L);
+        when(changeLog.getFrom(eq(1L), anyInt())).thenReturn(List.of(registrada(5L)));
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 1000, changeLog);
+
+        StepVerifier.create(bus.getNotificationAsFlux(1L))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void replayGapCompacted() throws Exception {
+        ClienteChangeLog changeLog = changeLog(4L);
+        Notificacion<Cliente> primera = registrada(1L);
+        when(changeLog.getFrom(eq(1L), anyInt())).thenReturn(List.of(primera));
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 1000, changeLog);
+
+        StepVerifier.create(bus.getNotificationAsFlux(1L))
+                .expectNext(primera)
+                .then(() -> bus.notify(notificacion(4L)))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void notifyCompactsInBackground() {
+        ClienteChangeLog changeLog = changeLog(1000L);
+        AtomicReference<Thread> compactador = new AtomicReference<>();
+        when(changeLog.compact(anyLong())).thenAnswer(invocation -> {
+            compactador.set(Thread.currentThread());
+            return 1;
+        });
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 1000, changeLog);
+
+        bus.notify(notificacion(1L));
+
+        verify(changeLog, timeout(1000)).compact(anyLong());
+        assertNotSame(Thread.currentThread(), compactador.get(), "No debería compactarse en el hilo que notifica");
+    }
+
+    @Test
+    void replayReadErrorPropagates() throws Exception {
+        ClienteChangeLog changeLog = changeLog(2L);
+        Notificacion<Cliente> primera = registrada(1L);
+        when(changeLog.getFrom(eq(1L), anyInt())).thenReturn(List.of(primera));
+        when(changeLog.getFrom(eq(2L), anyInt())).thenThrow(new SQLException("base de datos bloqueada"));
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 1000, changeLog);
+
+        StepVerifier.create(bus.getNotificationAsFlux(1L))
+                .expectNext(primera)
+                .expectErrorSatisfies(error -> assertInstanceOf(SQLException.class, error,
+                        "Un error de lectura no debería confundirse con una compactación"))
+                .verify();
+    }
+
+    @Test
+    void replayWithoutChangeLog() {
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100);
+
+        StepVerifier.create(bus.getNotificationAsFlux(1L))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+}
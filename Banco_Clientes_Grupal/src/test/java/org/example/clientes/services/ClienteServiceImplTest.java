@@ -4,26 +4,47 @@ import io.vavr.control.Either;
 import org.example.clientes.cache.CacheClienteImpl;
 import org.example.clientes.errors.ClienteError;
 import org.example.clientes.model.Cliente;
+import org.example.clientes.model.Notificacion;
+import org.example.clientes.model.ResultadoSincronizacion;
 import org.example.clientes.model.Tarjeta;
 import org.example.clientes.model.Usuario;
 import org.example.clientes.repositories.ClienteRepository;
+import org.example.clientes.repositories.ClienteWriteBehind;
 import org.example.clientes.repositories.TarjetaRemoteRepositoryImpl;
+import org.example.config.ConfigProperties;
+import org.example.config.ServiceExecutors;
 import org.example.rest.repository.UserRemoteRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,12 +65,24 @@ class ClienteServiceImplTest {
     @Mock
     CacheClienteImpl cacheCliente;
 
+    @Mock
+    ClienteWriteBehind writeBehind;
+
     @InjectMocks
     ClienteServiceImpl clienteService;
 
+    ServiceExecutors executors;
+
     @BeforeEach
     void setUp() {
-        clienteService = new ClienteServiceImpl(userRepository, tarjetaRepository, clienteRepository, cacheCliente, notificacion);
+        executors = new ServiceExecutors(new ConfigProperties());
+        clienteService = new ClienteServiceImpl(userRepository, tarjetaRepository, clienteRepository, cacheCliente, notificacion,
+                executors, writeBehind);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executors.close();
     }
 
     @Test
@@ -96,11 +129,177 @@ class ClienteServiceImplTest {
         assertEquals(cliente, result.get());
     }
 
+    @Test
+    void getByIdRemote() throws Exception {
+        long clienteId = 2L;
+        Usuario usuario = Usuario.builder().id(clienteId).nombre("Jane Doe").build();
+        List<Tarjeta> tarjetas = List.of(Tarjeta.builder().numeroTarjeta("9876543210987654").nombreTitular("Jane Doe").build());
+
+        when(cacheCliente.get(clienteId)).thenReturn(null);
+        when(clienteRepository.getById(clienteId)).thenReturn(Optional.empty());
+        when(userRepository.getByIdAsync(clienteId)).thenReturn(CompletableFuture.completedFuture(Optional.of(usuario)));
+        when(tarjetaRepository.getByTitular("Jane Doe")).thenReturn(tarjetas);
+
+        Either<ClienteError, Cliente> result = clienteService.getById(clienteId);
+
+        assertTrue(result.isRight());
+        assertEquals(usuario, result.get().getUsuario());
+        assertEquals(tarjetas, result.get().getTarjeta());
+        verify(tarjetaRepository, never()).getAll();
+        verify(writeBehind).save(result.get());
+    }
+
+    @Test
+    void getByIdRemoteLeavesLocalDbPool() throws Exception {
+        long clienteId = 5L;
+        Usuario usuario = Usuario.builder().id(clienteId).nombre("Jane Doe").build();
+        CompletableFuture<Optional<Usuario>> usuarioFuture = new CompletableFuture<>();
+        Map<String, String> hilos = new ConcurrentHashMap<>();
+
+        when(cacheCliente.get(clienteId)).thenReturn(null);
+        when(clienteRepository.getById(clienteId)).thenAnswer(invocation -> {
+            hilos.put("local", Thread.currentThread().getName());
+            return Optional.empty();
+        });
+        when(userRepository.getByIdAsync(clienteId)).thenAnswer(invocation -> {
+            // El usuario llega desde otro hilo, como la respuesta del cliente HTTP
+            CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)
+                    .execute(() -> usuarioFuture.complete(Optional.of(usuario)));
+            return usuarioFuture;
+        });
+        when(tarjetaRepository.getByTitular("Jane Doe")).thenAnswer(invocation -> {
+            hilos.put("remoto", Thread.currentThread().getName());
+            return List.of();
+        });
+
+        Either<ClienteError, Cliente> result = clienteService.getById(clienteId);
+
+        assertTrue(result.isRight());
+        assertAll(
+                () -> assertTrue(hilos.get("local").startsWith("local-db"), "La consulta local debería ejecutarse en su pool"),
+                () -> assertTrue(hilos.get("remoto").startsWith("remote-db"), "Las tarjetas deberían consultarse en el pool remoto")
+        );
+    }
+
+    @Test
+    void getByIds() throws Exception {
+        Cliente enCache = Cliente.builder().id(1L).usuario(Usuario.builder().id(1L).nombre("John Doe").build()).tarjeta(List.of()).build();
+        Cliente enLocal = Cliente.builder().id(2L).usuario(Usuario.builder().id(2L).nombre("Ana").build()).tarjeta(List.of()).build();
+        Usuario usuarioRemoto = Usuario.builder().id(3L).nombre("Jane Doe").build();
+        List<Tarjeta> tarjetas = List.of(Tarjeta.builder().numeroTarjeta("9876543210987654").nombreTitular("Jane Doe").build());
+
+        when(cacheCliente.getAll(any())).thenReturn(Map.of(1L, enCache));
+        when(clienteRepository.getByIds(List.of(3L, 4L, 2L))).thenReturn(List.of(enLocal));
+        when(userRepository.getByIdAsync(3L)).thenReturn(CompletableFuture.completedFuture(Optional.of(usuarioRemoto)));
+        when(userRepository.getByIdAsync(4L)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(tarjetaRepository.getByTitulares(List.of("Jane Doe"))).thenReturn(Map.of("Jane Doe", tarjetas));
+
+        Either<ClienteError, List<Cliente>> result = clienteService.getByIds(List.of(3L, 1L, 4L, 2L));
+
+        assertTrue(result.isRight());
+        assertEquals(List.of(3L, 1L, 2L), result.get().stream().map(Cliente::getId).toList());
+        assertEquals(tarjetas, result.get().getFirst().getTarjeta());
+        verify(cacheCliente).putAll(argThat(cargados -> cargados.keySet().equals(Set.of(2L, 3L))));
+        verify(writeBehind).saveAll(argThat(remotos -> remotos.size() == 1 && remotos.iterator().next().getId() == 3L));
+        verify(clienteRepository, never()).getById(anyLong());
+    }
+
+    @Test
+    void getByIdsRemoteFailureKeepsCacheAndLocal() throws Exception {
+        Cliente enCache = Cliente.builder().id(1L).usuario(Usuario.builder().id(1L).nombre("John Doe").build()).tarjeta(List.of()).build();
+        Cliente enLocal = Cliente.builder().id(2L).usuario(Usuario.builder().id(2L).nombre("Ana").build()).tarjeta(List.of()).build();
+
+        when(cacheCliente.getAll(any())).thenReturn(Map.of(1L, enCache));
+        when(clienteRepository.getByIds(List.of(2L, 3L))).thenReturn(List.of(enLocal));
+        when(userRepository.getByIdAsync(3L)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Servicio caído")));
+
+        Either<ClienteError, List<Cliente>> result = clienteService.getByIds(List.of(1L, 2L, 3L));
+
+        assertTrue(result.isRight());
+        assertEquals(List.of(1L, 2L), result.get().stream().map(Cliente::getId).toList());
+        verify(cacheCliente).putAll(Map.of(2L, enLocal));
+        verify(writeBehind, never()).saveAll(any());
+    }
+
+    @Test
+    void getByIdsLocalFailureKeepsCacheAndRemote() throws Exception {
+        Cliente enCache = Cliente.builder().id(1L).usuario(Usuario.builder().id(1L).nombre("John Doe").build()).tarjeta(List.of()).build();
+        Usuario usuarioRemoto = Usuario.builder().id(2L).nombre("Jane Doe").build();
+
+        when(cacheCliente.getAll(any())).thenReturn(Map.of(1L, enCache));
+        when(clienteRepository.getByIds(List.of(2L))).thenThrow(new IllegalStateException("Base de datos bloqueada"));
+        when(userRepository.getByIdAsync(2L)).thenReturn(CompletableFuture.completedFuture(Optional.of(usuarioRemoto)));
+        when(tarjetaRepository.getByTitulares(List.of("Jane Doe"))).thenReturn(Map.of());
+
+        Either<ClienteError, List<Cliente>> result = clienteService.getByIds(List.of(1L, 2L));
+
+        assertTrue(result.isRight());
+        assertEquals(List.of(1L, 2L), result.get().stream().map(Cliente::getId).toList());
+        verify(writeBehind, never()).saveAll(any());
+    }
+
+    @Test
+    void getByIdPendingDelete() {
+        long clienteId = 6L;
+        when(cacheCliente.get(clienteId)).thenReturn(null);
+        when(writeBehind.isPendingDelete(clienteId)).thenReturn(true);
+
+        Either<ClienteError, Cliente> result = clienteService.getById(clienteId);
+
+        assertTrue(result.isLeft());
+        assertInstanceOf(ClienteError.ClienteNotFound.class, result.getLeft());
+        verify(clienteRepository, never()).getById(anyLong());
+        verify(cacheCliente, never()).put(anyLong(), any());
+    }
+
+    @Test
+    void getByIdPendingSave() {
+        Cliente encolado = Cliente.builder().id(7L).usuario(Usuario.builder().id(7L).nombre("Ana").build()).tarjeta(List.of()).build();
+        when(cacheCliente.get(7L)).thenReturn(null);
+        when(writeBehind.getPendingSave(7L)).thenReturn(Optional.of(encolado));
+
+        Either<ClienteError, Cliente> result = clienteService.getById(7L);
+
+        assertTrue(result.isRight());
+        assertSame(encolado, result.get());
+        verify(clienteRepository, never()).getById(anyLong());
+    }
+
+    @Test
+    void getAllFlushesPendingWrites() {
+        Cliente cliente = Cliente.builder().id(1L).usuario(Usuario.builder().id(1L).nombre("Ana").build()).tarjeta(List.of()).build();
+        when(writeBehind.hasPending()).thenReturn(true);
+        when(clienteRepository.getAll()).thenReturn(List.of(cliente));
+
+        Either<ClienteError, List<Cliente>> result = clienteService.getAll();
+
+        assertTrue(result.isRight());
+        InOrder orden = inOrder(writeBehind, clienteRepository);
+        orden.verify(writeBehind).flush();
+        orden.verify(clienteRepository).getAll();
+    }
+
+    @Test
+    void getByIdsPendingWrites() {
+        Cliente encolado = Cliente.builder().id(1L).usuario(Usuario.builder().id(1L).nombre("Ana").build()).tarjeta(List.of()).build();
+        when(cacheCliente.getAll(any())).thenReturn(Map.of());
+        when(writeBehind.getPendingSave(1L)).thenReturn(Optional.of(encolado));
+        when(writeBehind.isPendingDelete(2L)).thenReturn(true);
+
+        Either<ClienteError, List<Cliente>> result = clienteService.getByIds(List.of(1L, 2L));
+
+        assertTrue(result.isRight());
+        assertEquals(List.of(encolado), result.get());
+        verify(clienteRepository, never()).getByIds(any());
+        verify(userRepository, never()).getByIdAsync(anyLong());
+    }
+
     @Test
     void findByIdNotExist() throws Exception {
         long clienteId = 999L;
         when(cacheCliente.get(clienteId)).thenReturn(null);
         when(clienteRepository.getById(clienteId)).thenReturn(Optional.empty());
+        when(userRepository.getByIdAsync(clienteId)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
 
         Either<ClienteError, Cliente> result = clienteService.getById(clienteId);
@@ -124,7 +323,7 @@ class ClienteServiceImplTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.createUserSync(usuario)).thenReturn(Optional.of(usuario));
+        when(userRepository.createUserAsync(usuario)).thenReturn(CompletableFuture.completedFuture(Optional.of(usuario)));
         doNothing().when(notificacion).notify(any());
 
 
@@ -132,6 +331,8 @@ class ClienteServiceImplTest {
 
 
         assertTrue(result.isRight());
+        verify(writeBehind).save(result.get());
+        verify(clienteRepository, never()).create(any());
     }
 
     @Test
@@ -148,7 +349,7 @@ class ClienteServiceImplTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.getByIdSync(clienteId)).thenReturn(Optional.of(usuario));
+        when(userRepository.getByIdAsync(clienteId)).thenReturn(CompletableFuture.completedFuture(Optional.of(usuario)));
         when(clienteRepository.update(clienteId, cliente)).thenReturn(cliente);
 
 
@@ -170,7 +371,7 @@ class ClienteServiceImplTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.getByIdSync(clienteId)).thenReturn(Optional.empty());
+        when(userRepository.getByIdAsync(clienteId)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
 
         Either<ClienteError, Cliente> result = clienteService.update(clienteId, cliente);
@@ -194,7 +395,7 @@ class ClienteServiceImplTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.getByIdSync(clienteId)).thenReturn(Optional.of(usuario));
+        when(userRepository.getByIdAsync(clienteId)).thenReturn(CompletableFuture.completedFuture(Optional.of(usuario)));
         when(clienteRepository.getById(clienteId)).thenReturn(Optional.of(cliente));
 
 
@@ -202,12 +403,45 @@ class ClienteServiceImplTest {
 
 
         assertTrue(result.isRight());
+        verify(writeBehind).delete(clienteId);
+    }
+
+    @Test
+    void updateThenDeleteDeliversDeletedInBatch() throws Exception {
+        long clienteId = 1L;
+        Usuario usuario = Usuario.builder().id(clienteId).nombre("John Doe").build();
+        Cliente cliente = Cliente.builder()
+                .id(clienteId)
+                .usuario(usuario)
+                .tarjeta(List.of(Tarjeta.builder().numeroTarjeta("1234567890123456").nombreTitular("John Doe").build()))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        ClienteNotificacionImpl bus = new ClienteNotificacionImpl(16, ClienteNotificacionImpl.Overflow.DROP_OLDEST, 100, 10, 200);
+        ClienteServiceImpl service = new ClienteServiceImpl(userRepository, tarjetaRepository, clienteRepository, cacheCliente, bus,
+                executors, writeBehind);
+
+        when(userRepository.getByIdAsync(clienteId)).thenReturn(CompletableFuture.completedFuture(Optional.of(usuario)));
+        when(clienteRepository.update(clienteId, cliente)).thenReturn(cliente);
+        when(clienteRepository.getById(clienteId)).thenReturn(Optional.of(cliente));
+
+        StepVerifier.create(service.getNotificationBatches())
+                .then(() -> {
+                    assertTrue(service.update(clienteId, cliente).isRight());
+                    assertTrue(service.delete(clienteId).isRight());
+                })
+                .assertNext(lote -> {
+                    assertEquals(1, lote.size(), "La modificación y la baja del mismo cliente deberían combinarse");
+                    assertEquals(Notificacion.Tipo.DELETED, lote.getFirst().getTipo(), "La baja de un cliente existente debería entregarse");
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
     }
 
     @Test
     void deleteNotExist() throws Exception {
         long clienteId = 999L;
-        when(userRepository.getByIdSync(clienteId)).thenReturn(Optional.empty());
+        when(userRepository.getByIdAsync(clienteId)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
 
         Either<ClienteError, Cliente> result = clienteService.delete(clienteId);
@@ -216,4 +450,45 @@ class ClienteServiceImplTest {
         assertTrue(result.isLeft());
         assertTrue(result.getLeft() instanceof ClienteError.ClienteNotDeleted);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateLocalBBDD() throws Exception {
+        Usuario usuario1 = Usuario.builder().id(1L).nombre("John Doe").userName("john").email("john@example.com").build();
+        Usuario usuario2 = Usuario.builder().id(2L).nombre("Jane Doe").userName("jane").email("jane@example.com").build();
+        Usuario usuario3 = Usuario.builder().id(3L).nombre("Old User").userName("old").email("old@example.com").build();
+        Tarjeta tarjeta1 = Tarjeta.builder().numeroTarjeta("1234567890123456").nombreTitular("John Doe").build();
+        Tarjeta tarjeta2 = Tarjeta.builder().numeroTarjeta("6543210987654321").nombreTitular("Jane Doe").build();
+        Cliente local1 = Cliente.builder().id(1L).usuario(usuario1).tarjeta(List.of(tarjeta1)).build();
+        Cliente local3 = Cliente.builder().id(3L).usuario(usuario3).tarjeta(List.of()).build();
+
+        when(userRepository.getAllAsync()).thenReturn(CompletableFuture.completedFuture(Optional.of(List.of(usuario1, usuario2))));
+        when(tarjetaRepository.getAll()).thenReturn(List.of(tarjeta1, tarjeta2));
+        when(clienteRepository.getAll()).thenReturn(List.of(local1, local3));
+        when(clienteRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+        Either<ClienteError, ResultadoSincronizacion> result = clienteService.updateLocalBBDD();
+
+        assertTrue(result.isRight());
+        assertEquals(1, result.get().getCreados());
+        assertEquals(0, result.get().getActualizados());
+        assertEquals(1, result.get().getBorrados());
+        assertEquals(1, result.get().getSinCambios());
+        verify(clienteRepository).applyChanges(
+                argThat(nuevos -> nuevos.size() == 1 && nuevos.iterator().next().getId() == 2L),
+                argThat(Collection::isEmpty),
+                eq(List.of(3L)));
+    }
+
+    @Test
+    void updateLocalBBDDSinUsuarios() throws Exception {
+        when(userRepository.getAllAsync()).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(tarjetaRepository.getAll()).thenReturn(List.of());
+        when(clienteRepository.getAll()).thenReturn(List.of());
+
+        Either<ClienteError, ResultadoSincronizacion> result = clienteService.updateLocalBBDD();
+
+        assertTrue(result.isLeft());
+        assertTrue(result.getLeft() instanceof ClienteError.ClienteNotSynchronized);
+        verify(clienteRepository, never()).applyChanges(any(), any(), any());
+    }
+}
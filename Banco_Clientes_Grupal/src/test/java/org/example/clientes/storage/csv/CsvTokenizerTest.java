@@ -0,0 +1,84 @@
+package org.example.clientes.storage.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTokenizerTest {
+
+    private List<List<String>> parse(String csv, int bufferSize) throws IOException {
+        List<List<String>> registros = new ArrayList<>();
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv), bufferSize)) {
+            while (tokenizer.next()) {
+                List<String> campos = new ArrayList<>();
+                for (int i = 0; i < tokenizer.size(); i++) {
+                    campos.add(tokenizer.get(i));
+                }
+                registros.add(campos);
+            }
+        }
+        return registros;
+    }
+
+    @Test
+    void simpleRecords() throws IOException {
+        List<List<String>> registros = parse("1,Ana,ana@example.com\n2,Pedro,pedro@example.com\n", 8192);
+
+        assertAll(
+                () -> assertEquals(2, registros.size()),
+                () -> assertEquals(List.of("1", "Ana", "ana@example.com"), registros.get(0)),
+                () -> assertEquals(List.of("2", "Pedro", "pedro@example.com"), registros.get(1))
+        );
+    }
+
+    @Test
+    void quotedFields() throws IOException {
+        List<List<String>> registros = parse("1,\"Perez, Juan\",\"dice \"\"hola\"\"\"\r\n2,\"varias\nlíneas\",\r\n", 8192);
+
+        assertAll(
+                () -> assertEquals(2, registros.size()),
+                () -> assertEquals(List.of("1", "Perez, Juan", "dice \"hola\""), registros.get(0)),
+                () -> assertEquals(List.of("2", "varias\nlíneas", ""), registros.get(1))
+        );
+    }
+
+    @Test
+    void fieldsAcrossBufferWindows() throws IOException {
+        String csv = "12345,\"Perez, Juan\",abcdefghij\r\n6,\"\"\"x\"\"\",y";
+
+        assertEquals(parse(csv, 8192), parse(csv, 3), "El resultado no debería depender del tamaño del buffer");
+        assertEquals(List.of("6", "\"x\"", "y"), parse(csv, 2).get(1));
+    }
+
+    @Test
+    void trailingSeparatorAndEmptyInput() throws IOException {
+        assertAll(
+                () -> assertEquals(List.of(List.of("a", "")), parse("a,", 8192)),
+                () -> assertTrue(parse("", 8192).isEmpty())
+        );
+    }
+
+    @Test
+    void getOutOfRange() throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader("a,b"))) {
+            assertTrue(tokenizer.next());
+            assertThrows(IndexOutOfBoundsException.class, () -> tokenizer.get(2));
+        }
+    }
+
+    @Test
+    void appendFieldQuotesWhenNeeded() throws IOException {
+        StringBuilder linea = new StringBuilder();
+        CsvTokenizer.appendField(linea, "Ana").append(',');
+        CsvTokenizer.appendField(linea, "Perez, \"Juan\"").append(',');
+        CsvTokenizer.appendField(linea, null);
+
+        assertEquals("Ana,\"Perez, \"\"Juan\"\"\",null", linea.toString());
+        assertEquals(List.of(List.of("Ana", "Perez, \"Juan\"", "null")), parse(linea.toString(), 4));
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.clientes.storage.csv;
 
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
 import org.example.clientes.errors.TarjetaError;
 import org.example.clientes.model.Tarjeta;
 import org.junit.jupiter.api.*;
@@ -10,7 +11,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -90,6 +93,89 @@ class StorageTarjetaCsvImplTest {
         );
     }
 
+    private Tarjeta tarjeta(long id) {
+        return Tarjeta.builder()
+                .id(id)
+                .nombreTitular("John Shena")
+                .numeroTarjeta("1234567890123456")
+                .fechaCaducidad(LocalDate.parse("2025-12-31"))
+                .build();
+    }
+
+    @Test
+    void testExportFile_AppendsWithoutRepeatingHeader() throws IOException {
+        File exportFile = File.createTempFile("ExportedTarjetas", ".csv");
+        exportFile.deleteOnExit();
+
+        storage.exportFile(exportFile, Observable.just(tarjeta(1L)));
+        storage.exportFile(exportFile, Observable.just(tarjeta(2L)));
+
+        List<String> lines = Files.readAllLines(exportFile.toPath());
+
+        assertAll("appendedTarjetas",
+                () -> assertEquals(3, lines.size()),
+                () -> assertEquals("1,John Shena,1234567890123456,2025-12-31,,", lines.get(1)),
+                () -> assertEquals("2,John Shena,1234567890123456,2025-12-31,,", lines.get(2))
+        );
+    }
+
+    @Test
+    void testExportAndImport_QuotedTitular() throws IOException {
+        Tarjeta tarjeta = Tarjeta.builder()
+                .id(3L)
+                .nombreTitular("Perez, Juan \"JP\"")
+                .numeroTarjeta("1234567890123456")
+                .fechaCaducidad(LocalDate.parse("2025-12-31"))
+                .build();
+
+        File exportFile = File.createTempFile("QuotedTarjetas", ".csv");
+        exportFile.deleteOnExit();
+
+        storage.exportFile(exportFile, Observable.just(tarjeta));
+        List<Tarjeta> tarjetaList = storage.importFile(exportFile).toList().blockingGet();
+
+        assertAll("quotedTarjetas",
+                () -> assertEquals(1, tarjetaList.size()),
+                () -> assertEquals("Perez, Juan \"JP\"", tarjetaList.getFirst().getNombreTitular()),
+                () -> assertEquals("1234567890123456", tarjetaList.getFirst().getNumeroTarjeta())
+        );
+    }
+
+    @Test
+    void testImportFileParallel() throws IOException {
+        File bigFile = File.createTempFile("ParallelStorageTarjetaCsvImplTest", ".csv");
+        bigFile.deleteOnExit();
+        StringBuilder csv = new StringBuilder("ID,Nombre Titular,Numero Tarjeta,Fecha Caducidad,CreatedAt,UpdatedAt\n");
+        for (int i = 1; i <= 500; i++) {
+            String numero = i % 50 == 0 ? "1111111111111111" : "4532015112830366";
+            csv.append(i).append(",\"Titular, ").append(i).append("\",").append(numero).append(",2099-12-31,2024-10-01T12:00:00,\n");
+        }
+        Files.writeString(bigFile.toPath(), csv.toString().stripTrailing());
+
+        StorageTarjetaCsvImpl parallelStorage = new StorageTarjetaCsvImpl(4, 256);
+        List<Long> ordered = parallelStorage.importFileParallel(bigFile, true).map(Tarjeta::getId).toList().blockingGet();
+        List<Long> unordered = parallelStorage.importFileParallel(bigFile, false).map(Tarjeta::getId).toList().blockingGet();
+
+        assertAll("parallelTarjetas",
+                () -> assertEquals(490, ordered.size(), "Deberían descartarse las tarjetas con número no válido"),
+                () -> assertEquals(1L, ordered.getFirst()),
+                () -> assertEquals(499L, ordered.getLast()),
+                () -> assertEquals(ordered.stream().sorted().toList(), ordered, "El modo ordenado debería conservar el orden del archivo"),
+                () -> assertEquals(490, unordered.size()),
+                () -> assertEquals(new HashSet<>(ordered), new HashSet<>(unordered))
+        );
+    }
+
+    @Test
+    void testImportFileParallel_StorageError() {
+        File nonExistentFile = new File("non-existent-file.csv");
+
+        Exception exception = assertThrows(Exception.class,
+                () -> storage.importFileParallel(nonExistentFile, true).toList().blockingGet());
+
+        assertInstanceOf(TarjetaError.StorageError.class, exception.getCause());
+    }
+
     @Test
     void testImportFile_ConTarjetaInvalido() throws IOException {
         File invalidTestFile = File.createTempFile("InvalidStorageTarjetaCsvImplTest", ".csv");
@@ -116,4 +202,18 @@ class StorageTarjetaCsvImplTest {
                 () -> assertEquals("Error al leer el archivo: non-existent-file.csv", exception.getCause().getMessage())
         );
     }
+
+    @Test
+    void testImportFileAsFlowable_Backpressure() {
+        TestSubscriber<Tarjeta> subscriber = storage.importFileAsFlowable(testFile).test(1);
+
+        subscriber.awaitCount(1);
+        subscriber.assertValueCount(1)
+                .assertNotComplete();
+
+        subscriber.requestMore(1);
+        subscriber.awaitDone(5, TimeUnit.SECONDS);
+        subscriber.assertValueCount(2)
+                .assertComplete();
+    }
 }
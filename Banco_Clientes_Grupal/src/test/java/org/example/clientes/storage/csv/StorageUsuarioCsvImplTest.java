@@ -1,6 +1,7 @@
 package org.example.clientes.storage.csv;
 
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
 import org.example.clientes.errors.UsuarioError;
 import org.example.clientes.model.Usuario;
 import org.junit.jupiter.api.AfterEach;
@@ -12,6 +13,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -90,6 +92,24 @@ class StorageUsuarioCsvImplTest {
         );
     }
 
+    @Test
+    void testExportFile_AppendsWithoutRepeatingHeader() throws IOException {
+        File exportFile = File.createTempFile("ExportedUsuarios", ".csv");
+        exportFile.deleteOnExit();
+
+        storage.exportFile(exportFile, Observable.just(Usuario.builder().id(1L).nombre("Pablo Motos").build()));
+        storage.exportFile(exportFile, Observable.just(Usuario.builder().id(2L).nombre("Juan Perez").build()));
+
+        List<String> lines = Files.readAllLines(exportFile.toPath());
+
+        assertAll("appendedUsuarios",
+                () -> assertEquals(3, lines.size()),
+                () -> assertEquals("ID,Nombre,UserName,Email,createdAt,updatedAt", lines.getFirst()),
+                () -> assertEquals("1,Pablo Motos,null,null,null,null", lines.get(1)),
+                () -> assertEquals("2,Juan Perez,null,null,null,null", lines.get(2))
+        );
+    }
+
     @Test
     void testImportFile_ConUsuarioInvalido() throws IOException {
         File invalidTestFile = File.createTempFile("InvalidStorageUsuarioCsvImplTest", ".csv");
@@ -117,4 +137,18 @@ class StorageUsuarioCsvImplTest {
                 () -> assertEquals("Error al leer el archivo: non-existent-file.csv", exception.getCause().getMessage())
         );
     }
+
+    @Test
+    void testImportFileAsFlowable_Backpressure() {
+        TestSubscriber<Usuario> subscriber = storage.importFileAsFlowable(testFile).test(1);
+
+        subscriber.awaitCount(1);
+        subscriber.assertValueCount(1)
+                .assertNotComplete();
+
+        subscriber.requestMore(1);
+        subscriber.awaitDone(5, TimeUnit.SECONDS);
+        subscriber.assertValueCount(2)
+                .assertComplete();
+    }
 }
@@ -1,23 +1,26 @@
 package org.example.clientes.storage.json;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.reactivex.rxjava3.core.Observable;
-import org.example.clientes.dto.ClienteDto;
-import org.example.clientes.mappers.ClienteMapper;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
 import org.example.clientes.model.Cliente;
 import org.example.clientes.model.Tarjeta;
 import org.example.clientes.model.Usuario;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,152 +28,146 @@ import static org.mockito.Mockito.*;
 
 class StorageJsonImplTest {
 
+    @TempDir
+    Path tempDir;
+
     private StorageJsonImpl storageJson;
-    private ObjectMapper objectMapper;
     private Logger logger;
 
     @BeforeEach
     public void setUp() {
-        objectMapper = mock(ObjectMapper.class);
         logger = mock(Logger.class);
-        storageJson = new StorageJsonImpl(objectMapper, logger);
+        storageJson = new StorageJsonImpl(new ObjectMapper(), logger);
     }
 
-    @Test
-    void testImportFile_Success() throws IOException {
-        File file = new File("clientes.json");
+    private Cliente cliente(long id) {
+        LocalDateTime fecha = LocalDateTime.of(2024, 10, 1, 12, 0);
 
         Usuario usuario = Usuario.builder()
-                .id(1L)
+                .id(id)
                 .nombre("Juan Pérez")
-                .userName("juanp")
-                .email("juan.perez@example.com")
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
+                .userName("juanp" + id)
+                .email("juan.perez" + id + "@example.com")
+                .createdAt(fecha)
+                .updatedAt(fecha)
                 .build();
 
         Tarjeta tarjeta = Tarjeta.builder()
-                .id(1L)
+                .id(id)
                 .nombreTitular("Juan Pérez")
                 .numeroTarjeta("1234-5678-9012-3456")
                 .fechaCaducidad(LocalDate.of(2025, 5, 31))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
+                .createdAt(fecha)
+                .updatedAt(fecha)
                 .build();
 
-        Cliente cliente = Cliente.builder()
-                .id(1L)
+        return Cliente.builder()
+                .id(id)
                 .usuario(usuario)
                 .tarjeta(Collections.singletonList(tarjeta))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
+                .createdAt(fecha)
+                .updatedAt(fecha)
                 .build();
+    }
 
-        List<ClienteDto> clientes = Collections.singletonList(ClienteMapper.toDto(cliente));
-
-        when(objectMapper.readValue(eq(file), any(TypeReference.class))).thenReturn(clientes);
+    @Test
+    void testExportAndImportFile_Success() throws IOException {
+        File file = tempDir.resolve("clientes.json").toFile();
+        List<Cliente> clientes = List.of(cliente(1L), cliente(2L), cliente(3L));
 
-        Observable<Cliente> result = storageJson.importFile(file);
+        storageJson.exportFile(file, Observable.fromIterable(clientes));
+        List<Cliente> importados = storageJson.importFile(file).toList().blockingGet();
 
-        assertNotNull(result);
-        assertEquals(1, result.toList().blockingGet().size());
+        assertAll(
+                () -> assertTrue(Files.readString(file.toPath()).contains("\n"), "Por defecto debería exportarse indentado"),
+                () -> assertEquals(clientes, importados)
+        );
+        verify(logger).info("Iniciando la exportación de clientes al archivo: {}", file.getName());
         verify(logger).info("Iniciando la importación de clientes desde el archivo: {}", file.getName());
     }
 
     @Test
-    void testImportFile_Error() throws IOException {
-        File file = new File("clientes.json");
+    void testExportFile_Compact() throws IOException {
+        File file = tempDir.resolve("clientes_compactos.json").toFile();
+        StorageJsonImpl compactStorage = new StorageJsonImpl(new ObjectMapper(), logger, false);
+
+        compactStorage.exportFile(file, Observable.just(cliente(1L), cliente(2L)));
+        String json = Files.readString(file.toPath());
+
+        assertAll(
+                () -> assertFalse(json.contains("\n"), "Sin pretty print no debería haber saltos de línea"),
+                () -> assertTrue(json.startsWith("[{") && json.endsWith("}]")),
+                () -> assertEquals(2, compactStorage.importFile(file).toList().blockingGet().size())
+        );
+    }
 
-        // Simular error al leer el archivo
-        when(objectMapper.readValue(any(File.class), any(TypeReference.class))).thenThrow(new IOException("Error de lectura"));
+    @Test
+    void testExportFile_Empty() throws IOException {
+        File file = tempDir.resolve("clientes_vacio.json").toFile();
 
-        Observable<Cliente> result = storageJson.importFile(file);
+        storageJson.exportFile(file, Observable.empty());
 
-        result.test().assertError(IOException.class);
-        verify(logger).error(eq("Error al importar clientes desde el archivo: {}"), eq(file.getName()), any(IOException.class));
+        assertAll(
+                () -> assertEquals("[ ]", Files.readString(file.toPath())),
+                () -> assertTrue(storageJson.importFile(file).toList().blockingGet().isEmpty())
+        );
     }
 
     @Test
-    void testExportFile_Success() throws IOException {
-        File file = new File("clientes_export.json");
+    void testImportFileAsFlowable_Backpressure() {
+        File file = tempDir.resolve("clientes_backpressure.json").toFile();
+        storageJson.exportFile(file, Observable.just(cliente(1L), cliente(2L)));
 
-        // Crear Cliente para exportar
-        Usuario usuario = Usuario.builder()
-                .id(1L)
-                .nombre("Juan Pérez")
-                .userName("juanp")
-                .email("juan.perez@example.com")
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        TestSubscriber<Cliente> subscriber = storageJson.importFileAsFlowable(file).test(1);
 
-        Tarjeta tarjeta = Tarjeta.builder()
-                .id(1L)
-                .nombreTitular("Juan Pérez")
-                .numeroTarjeta("1234-5678-9012-3456")
-                .fechaCaducidad(LocalDate.of(2025, 5, 31))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        subscriber.awaitCount(1);
+        subscriber.assertValues(cliente(1L))
+                .assertNotComplete();
 
-        Cliente cliente = Cliente.builder()
-                .id(1L)
-                .usuario(usuario)
-                .tarjeta(Collections.singletonList(tarjeta))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        subscriber.requestMore(1);
+        subscriber.awaitDone(5, TimeUnit.SECONDS);
+        subscriber.assertValues(cliente(1L), cliente(2L))
+                .assertComplete();
+    }
 
-        List<Cliente> clientes = Collections.singletonList(cliente);
+    @Test
+    void testImportFile_Error() {
+        File file = tempDir.resolve("no-existe.json").toFile();
 
-        // Ejecutar exportación
-        storageJson.exportFile(file, Observable.fromIterable(clientes));
+        storageJson.importFile(file).test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(IOException.class);
 
-        // Verificar que el ObjectMapper intentó escribir los datos correctos
-        verify(objectMapper).writeValue(eq(file), any(List.class));
-        verify(logger).info("Iniciando la exportación de clientes al archivo: {}", file.getName());
+        verify(logger).error(eq("Error al importar clientes desde el archivo: {}"), eq(file.getName()), any(IOException.class));
     }
 
     @Test
-    void testExportFile_Error() throws IOException {
-        File file = new File("clientes_export.json");
+    void testImportFile_NotAnArray() throws IOException {
+        File file = tempDir.resolve("cliente.json").toFile();
+        Files.writeString(file.toPath(), "{\"id\": 1}");
 
-        // Simular error durante la exportación
-        doThrow(new IOException("Error de escritura")).when(objectMapper).writeValue(any(File.class), any(List.class));
+        storageJson.importFile(file).test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(JsonParseException.class);
+    }
 
-        // Datos de ejemplo
-        Usuario usuario = Usuario.builder()
-                .id(1L)
-                .nombre("Juan Pérez")
-                .userName("juanp")
-                .email("juan.perez@example.com")
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+    @Test
+    void testExportFile_Error() {
+        File file = tempDir.toFile();
 
-        Tarjeta tarjeta = Tarjeta.builder()
-                .id(1L)
-                .nombreTitular("Juan Pérez")
-                .numeroTarjeta("1234-5678-9012-3456")
-                .fechaCaducidad(LocalDate.of(2025, 5, 31))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        // Un directorio no se puede abrir para escribir
+        storageJson.exportFile(file, Observable.just(cliente(1L)));
 
-        Cliente cliente = Cliente.builder()
-                .id(1L)
-                .usuario(usuario)
-                .tarjeta(Collections.singletonList(tarjeta))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        verify(logger).error(eq("Error al exportar clientes al archivo: {}"), eq(file.getName()), any(IOException.class));
+    }
 
-        List<Cliente> clientes = Collections.singletonList(cliente);
+    @Test
+    void testExportFile_SourceFailsPartway() {
+        File file = tempDir.resolve("clientes_incompletos.json").toFile();
 
-        // Ejecutar exportación con error
-        storageJson.exportFile(file, Observable.fromIterable(clientes));
+        storageJson.exportFile(file, Observable.just(cliente(1L)).concatWith(Observable.error(new IllegalStateException("Fallo del origen"))));
 
-        // Verificar que el logger registró el error correctamente
-        verify(logger).error(eq("Error al exportar clientes al archivo: {}"), eq(file.getName()), any(IOException.class));
+        assertFalse(file.exists(), "Una exportación incompleta no debería dejar un JSON que parezca completo");
+        verify(logger).error(eq("Error durante el procesamiento de la lista de clientes"), any(IllegalStateException.class));
     }
 }
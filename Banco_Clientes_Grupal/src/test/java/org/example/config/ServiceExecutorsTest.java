@@ -0,0 +1,164 @@
+package org.example.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceExecutorsTest {
+
+    private ConfigProperties config(Map<String, String> values) {
+        return new ConfigProperties() {
+            @Override
+            public String getProperty(String key, String defaultValue) {
+                return values.getOrDefault(key, defaultValue);
+            }
+        };
+    }
+
+    @Test
+    void rejectWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (ServiceExecutors executors = new ServiceExecutors(config(Map.of(
+                "executor.remoteDb.threads", "1",
+                "executor.remoteDb.queue", "1")))) {
+            executors.remoteDb().submit(() -> release.await(5, TimeUnit.SECONDS));
+            executors.remoteDb().submit(() -> release.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RejectedExecutionException.class, () -> executors.remoteDb().submit(() -> { }));
+
+            ServiceExecutors.Stats stats = executors.getStats(ServiceExecutors.Pool.REMOTE_DB);
+            assertAll(() -> {
+                assertEquals(1, stats.getRejectedCount(), "Debería contarse la tarea rechazada");
+                assertEquals(1, stats.getQueueSize(), "Debería haber una tarea en cola");
+                assertEquals(0, executors.getStats(ServiceExecutors.Pool.LOCAL_DB).getRejectedCount(),
+                        "Los demás pools no deberían verse afectados");
+            });
+            release.countDown();
+        }
+    }
+
+    @Test
+    void callerRunsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (ServiceExecutors executors = new ServiceExecutors(config(Map.of(
+                "executor.localDb.threads", "1",
+                "executor.localDb.queue", "1",
+                "executor.localDb.rejection", "caller-runs")))) {
+            executors.localDb().submit(() -> release.await(5, TimeUnit.SECONDS));
+            executors.localDb().submit(() -> release.await(5, TimeUnit.SECONDS));
+
+            Thread caller = Thread.currentThread();
+            Thread[] runner = new Thread[1];
+            executors.localDb().submit(() -> runner[0] = Thread.currentThread());
+
+            assertSame(caller, runner[0], "La tarea rechazada debería ejecutarse en el hilo que la envía");
+            assertEquals(1, executors.getStats(ServiceExecutors.Pool.LOCAL_DB).getRejectedCount());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void invalidRejectionPolicy() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ServiceExecutors(config(Map.of("executor.rest.rejection", "discard"))));
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        try (ServiceExecutors executors = new ServiceExecutors(config(Map.of("executor.virtualThreads", "true")))) {
+            Future<Boolean> virtual = executors.localDb().submit(() -> Thread.currentThread().isVirtual());
+
+            assertTrue(executors.isVirtualThreads());
+            assertTrue(virtual.get(5, TimeUnit.SECONDS), "La tarea debería ejecutarse en un hilo virtual");
+        }
+    }
+
+    @Test
+    void virtualThreadsLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (ServiceExecutors executors = new ServiceExecutors(config(Map.of(
+                "executor.virtualThreads", "true",
+                "executor.rest.threads", "1",
+                "executor.rest.queue", "1")))) {
+            executors.rest().submit(() -> release.await(5, TimeUnit.SECONDS));
+            Future<?> waiting = executors.rest().submit(() -> { });
+
+            assertThrows(RejectedExecutionException.class, () -> executors.rest().submit(() -> { }));
+            assertEquals(1, executors.getStats(ServiceExecutors.Pool.REST).getRejectedCount());
+
+            release.countDown();
+            waiting.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void virtualThreadsShutdownNowReturnsWaitingTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        try (ServiceExecutors executors = new ServiceExecutors(config(Map.of(
+                "executor.virtualThreads", "true",
+                "executor.rest.threads", "1",
+                "executor.rest.queue", "10")))) {
+            Future<?> running = executors.rest().submit(() -> {
+                started.countDown();
+                Thread.sleep(5000);
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<?> waiting = executors.rest().submit(() -> { });
+
+            List<Runnable> pending = executors.rest().shutdownNow();
+
+            assertAll(() -> {
+                assertEquals(List.of(waiting), pending, "Debería devolverse la tarea que esperaba un permiso");
+                assertThrows(CancellationException.class, () -> waiting.get(5, TimeUnit.SECONDS),
+                        "La tarea en espera debería cancelarse en lugar de quedarse sin completar");
+                assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS),
+                        "La tarea en curso debería interrumpirse");
+            });
+        }
+    }
+
+    @Test
+    void invokeAllOrCancel() throws Exception {
+        try (ServiceExecutors executors = new ServiceExecutors(config(Map.of()))) {
+            List<Callable<Integer>> tasks = List.of(() -> 1, () -> 2, () -> 3);
+
+            assertEquals(List.of(1, 2, 3), ServiceExecutors.invokeAllOrCancel(executors.remoteDb(), tasks, 5000));
+        }
+    }
+
+    @Test
+    void invokeAllOrCancelFailure() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (ServiceExecutors executors = new ServiceExecutors(config(Map.of()))) {
+            List<Callable<Integer>> tasks = List.of(
+                    () -> {
+                        try {
+                            Thread.sleep(5000);
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                        }
+                        return 1;
+                    },
+                    () -> {
+                        throw new IllegalStateException("Error en la tarea");
+                    });
+
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> ServiceExecutors.invokeAllOrCancel(executors.remoteDb(), tasks, 5000));
+
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+            assertTrue(interrupted.await(1, TimeUnit.SECONDS), "La tarea hermana debería cancelarse");
+        }
+    }
+}
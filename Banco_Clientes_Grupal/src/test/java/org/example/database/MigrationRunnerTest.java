@@ -0,0 +1,100 @@
+package org.example.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationRunnerTest {
+    private final MigrationRunner runner = new MigrationRunner("migrations/local",
+            List.of("V2__tarjeta_usuario_id.sql", "V1__create_usuario_tarjeta.sql"));
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void migrate() throws SQLException {
+        int applied = runner.migrate(connection);
+
+        assertAll(() -> {
+            assertEquals(2, applied, "Deberían aplicarse las dos migraciones");
+            assertTrue(runner.isVersioned(connection), "Debería existir la tabla schema_version");
+            assertEquals(2, countVersions(), "Deberían registrarse las dos versiones");
+            assertTrue(hasColumn("Tarjeta", "usuarioId"), "La tabla Tarjeta debería tener la columna usuarioId");
+        });
+    }
+
+    @Test
+    void migrateIdempotent() throws SQLException {
+        runner.migrate(connection);
+
+        assertEquals(0, runner.migrate(connection), "No debería aplicarse ninguna migración la segunda vez");
+    }
+
+    @Test
+    void baseline() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Usuario (id INTEGER PRIMARY KEY AUTOINCREMENT, nombre VARCHAR(255) NOT NULL, "
+                    + "userName VARCHAR(255) NOT NULL UNIQUE, email VARCHAR(255) NOT NULL UNIQUE, createdAt TIMESTAMP, updatedAt TIMESTAMP)");
+            statement.execute("CREATE TABLE Tarjeta (id INTEGER PRIMARY KEY AUTOINCREMENT, numeroTarjeta VARCHAR(16) NOT NULL, "
+                    + "nombreTitular TEXT NOT NULL, fechaCaducidad DATE NOT NULL, createdAt TIMESTAMP, updatedAt TIMESTAMP)");
+            statement.execute("INSERT INTO Usuario (nombre, userName, email) VALUES ('Ana', 'anaUser', 'ana@example.com')");
+            statement.execute("INSERT INTO Tarjeta (numeroTarjeta, nombreTitular, fechaCaducidad) VALUES ('1234567890123456', 'Ana', '2025-01-01')");
+        }
+
+        runner.baseline(connection, 1);
+        int applied = runner.migrate(connection);
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT usuarioId FROM Tarjeta")) {
+            assertTrue(resultSet.next());
+            assertEquals(1, applied, "Solo debería aplicarse la migración posterior a la versión base");
+            assertEquals(1L, resultSet.getLong("usuarioId"), "La tarjeta debería quedar enlazada con su usuario");
+        }
+    }
+
+    @Test
+    void migrateChecksumMismatch() throws SQLException {
+        runner.migrate(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE schema_version SET checksum = 'modificado' WHERE version = 1");
+        }
+
+        assertThrows(SQLException.class, () -> runner.migrate(connection));
+    }
+
+    private int countVersions() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private boolean hasColumn(String table, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (resultSet.next()) {
+                if (column.equalsIgnoreCase(resultSet.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -15,14 +15,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -450,4 +454,50 @@ class UserRemoteRepositoryTest {
         
     }
 
+    @Test
+    void getByIdAsync() throws Exception {
+        var id = 1;
+        var user = UserGetById.builder().id(id).name("Test 01").username("test01user").email("test01user@mail.com").build();
+        Call<UserGetById> call = mock(Call.class);
+        doAnswer(invocation -> {
+            Callback<UserGetById> callback = invocation.getArgument(0);
+            callback.onResponse(call, Response.success(user));
+            return null;
+        }).when(call).enqueue(any());
+        when(userApiRest.getByIdSync(id)).thenReturn(call);
+
+        Optional<Usuario> result = userRemoteRepository.getByIdAsync(id).get(1, TimeUnit.SECONDS);
+
+        assertTrue(result.isPresent());
+        assertEquals("Test 01", result.get().getNombre());
+        verify(call, never()).execute();
+    }
+
+    @Test
+    void getByIdAsyncFailure() throws Exception {
+        var id = 1;
+        Call<UserGetById> call = mock(Call.class);
+        doAnswer(invocation -> {
+            Callback<UserGetById> callback = invocation.getArgument(0);
+            callback.onFailure(call, new IOException("Error de red"));
+            return null;
+        }).when(call).enqueue(any());
+        when(userApiRest.getByIdSync(id)).thenReturn(call);
+
+        Optional<Usuario> result = userRemoteRepository.getByIdAsync(id).get(1, TimeUnit.SECONDS);
+
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void getByIdAsyncCancel() {
+        var id = 1;
+        Call<UserGetById> call = mock(Call.class);
+        when(userApiRest.getByIdSync(id)).thenReturn(call);
+
+        CompletableFuture<Optional<Usuario>> future = userRemoteRepository.getByIdAsync(id);
+        future.cancel(true);
+
+        verify(call, times(1)).cancel();
+    }
 }